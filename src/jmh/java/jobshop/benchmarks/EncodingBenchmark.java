@@ -0,0 +1,97 @@
+package jobshop.benchmarks;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+import jobshop.encodings.JobNumbers;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Task;
+import jobshop.solvers.GreedySolverEST_SPT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Throughput of the evaluation of the encodings and of the operations on schedules.
+ *
+ * All benchmarks work on the solution of GreedySolverEST_SPT for the instance.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EncodingBenchmark {
+
+    @Param({"ft10", "la40", "ta40", "ta80"})
+    public String instanceName;
+
+    private Path path;
+    private Instance instance;
+    private JobNumbers jobNumbers;
+    private ResourceOrder resourceOrder;
+    private Schedule schedule;
+
+    // start times of the schedule, times[j][t] being the start time of task t of job j
+    private int[][] times;
+
+    @Setup
+    public void setup() throws IOException {
+        path = Paths.get("instances", instanceName);
+        instance = Instance.fromFile(path);
+        schedule = new GreedySolverEST_SPT().solve(instance, System.currentTimeMillis() + 10000).schedule;
+        jobNumbers = new JobNumbers(schedule);
+        resourceOrder = new ResourceOrder(schedule);
+
+        times = new int[instance.numJobs][instance.numTasks];
+        for(int j = 0 ; j < instance.numJobs ; j++) {
+            for(int t = 0 ; t < instance.numTasks ; t++) {
+                times[j][t] = schedule.startTime(j, t);
+            }
+        }
+    }
+
+    @Benchmark
+    public Schedule jobNumbersToSchedule() {
+        return jobNumbers.toSchedule();
+    }
+
+    @Benchmark
+    public Schedule resourceOrderToSchedule() {
+        return resourceOrder.toSchedule();
+    }
+
+    @Benchmark
+    public ResourceOrder resourceOrderCopy() {
+        return resourceOrder.copy();
+    }
+
+    /** The critical path is computed on a new schedule each time, as it is cached by the schedule. */
+    @Benchmark
+    public List<Task> criticalPath() {
+        return new Schedule(instance, times).criticalPath();
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return schedule.isValid();
+    }
+
+    @Benchmark
+    public Instance fromFile() throws IOException {
+        return Instance.fromFile(path);
+    }
+}
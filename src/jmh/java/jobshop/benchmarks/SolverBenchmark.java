@@ -0,0 +1,50 @@
+package jobshop.benchmarks;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.encodings.TabooSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/** Throughput of a taboo search with a fixed number of iterations, which is not stopped by its deadline. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SolverBenchmark {
+
+    /** Number of iterations of each taboo search */
+    private static final int TABOO_ITERATIONS = 200;
+
+    @Param({"ft10", "la40", "ta40", "ta80"})
+    public String instanceName;
+
+    private Instance instance;
+    private TabooSolver taboo;
+
+    @Setup
+    public void setup() throws IOException {
+        instance = Instance.fromFile(Paths.get("instances", instanceName));
+        taboo = new TabooSolver(TABOO_ITERATIONS, 10);
+    }
+
+    @Benchmark
+    public Result taboo() {
+        return taboo.solve(instance, System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+    }
+}
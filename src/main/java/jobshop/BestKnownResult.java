@@ -1,9 +1,9 @@
 package jobshop;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class BestKnownResult {
 
@@ -11,11 +11,16 @@ public class BestKnownResult {
         return bests.containsKey(instanceName);
     }
 
+    /** Names of the instances starting with the given prefix, in alphabetical order.
+     * As the names are sorted, they are contiguous and the first one is found by a binary search. */
     public static List<String> instancesMatching(String namePrefix) {
-        return Arrays.stream(instances)
-                .filter(i -> i.startsWith(namePrefix))
-                .sorted()
-                .collect(Collectors.toList());
+        int first = Arrays.binarySearch(instances, namePrefix);
+        if(first < 0)
+            first = -first - 1;
+        int last = first;
+        while(last < instances.length && instances[last].startsWith(namePrefix))
+            last++;
+        return Collections.unmodifiableList(Arrays.asList(instances).subList(first, last));
     }
 
     public static int of(String instanceName) {
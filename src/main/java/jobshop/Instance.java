@@ -2,12 +2,21 @@ package jobshop;
 
 import jobshop.encodings.Task;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Iterator;
-import java.util.Scanner;
-import java.util.stream.Collectors;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
 
 public class Instance {
 
@@ -23,6 +32,29 @@ public class Instance {
     final int[][] durations;
     final int[][] machines;
 
+    /** All tasks of the instance, tasks[op] is the task whose operation number is op = job * numTasks + task.
+     * Tasks are immutable, they are built once and shared by all encodings and solvers. */
+    private final Task[] tasks;
+
+    /** taskOnMachine[job][machine] is the index of the task of the job that executes on the machine, -1 if none.
+     * Built by buildIndexes() once the instance has been parsed. */
+    private final int[][] taskOnMachine;
+
+    /** operationsOnMachine[machine] contains the operation numbers of all tasks executing on the machine,
+     * ordered by job. Built by buildIndexes() once the instance has been parsed. */
+    private final int[][] operationsOnMachine;
+
+    /** remainingWork[op] is the sum of the durations of the operation op and of the following tasks of its job.
+     * Built by buildIndexes(). */
+    private final int[] remainingWork;
+
+    /** machineLoad[machine] is the sum of the durations of the tasks executing on the machine.
+     * Built by buildIndexes(). */
+    private final int[] machineLoad;
+
+    /** Lower bound of the makespan of any schedule, built by buildIndexes(). */
+    private int lowerBound;
+
     public int duration(int job, int task) {
         return durations[job][task];
     }
@@ -36,13 +68,80 @@ public class Instance {
         return this.machine(t.job, t.task);
     }
 
+    /** Returns the (shared) task object representing the given task of the given job. */
+    public Task task(int job, int task) {
+        return tasks[job * numTasks + task];
+    }
+    /** Returns the (shared) task object whose operation number is op. */
+    public Task task(int op) {
+        return tasks[op];
+    }
+
+    /** Number of operations (tasks of all jobs) in the instance. */
+    public int numOperations() {
+        return numJobs * numTasks;
+    }
+    /** Operation number of the given task of the given job, between 0 and numOperations()-1. */
+    public int operation(int job, int task) {
+        return job * numTasks + task;
+    }
+    public int operation(Task t) {
+        return operation(t.job, t.task);
+    }
+    /** Job of the given operation. */
+    public int jobOf(int op) {
+        return op / numTasks;
+    }
+    /** Index of the given operation in its job. */
+    public int taskOf(int op) {
+        return op % numTasks;
+    }
+    /** Duration of the given operation. */
+    public int durationOf(int op) {
+        return durations[op / numTasks][op % numTasks];
+    }
+    /** Machine of the given operation. */
+    public int machineOf(int op) {
+        return machines[op / numTasks][op % numTasks];
+    }
+
     /** among the tasks of the given job, returns the task index that uses the given machine. */
     public int task_with_machine(int job, int wanted_machine) {
-        for(int task = 0 ; task < numTasks ; task++) {
-            if(machine(job, task) == wanted_machine)
-                return task;
-        }
-        throw new RuntimeException("No task targeting machine "+wanted_machine+" on job "+job);
+        int task = taskOnMachine[job][wanted_machine];
+        if(task == -1)
+            throw new RuntimeException("No task targeting machine "+wanted_machine+" on job "+job);
+        return task;
+    }
+
+    /** Operation numbers of all tasks executing on the given machine, ordered by job.
+     * The returned array is shared and must not be modified. */
+    public int[] operationsOnMachine(int machine) {
+        return operationsOnMachine[machine];
+    }
+
+    /** Sum of the durations of the tasks of the given job. */
+    public int jobDuration(int job) {
+        return remainingWork[operation(job, 0)];
+    }
+
+    /** Sum of the durations of the given task and of all the tasks following it in its job. */
+    public int remainingWork(int job, int task) {
+        return remainingWork[operation(job, task)];
+    }
+
+    /** Sum of the durations of the given operation and of all the tasks following it in its job. */
+    public int remainingWork(int op) {
+        return remainingWork[op];
+    }
+
+    /** Sum of the durations of the tasks executing on the given machine. */
+    public int machineLoad(int machine) {
+        return machineLoad[machine];
+    }
+
+    /** Lower bound of the makespan: no schedule can end before the longest job nor before the most loaded machine. */
+    public int lowerBound() {
+        return lowerBound;
     }
 
     Instance(int numJobs, int numTasks) {
@@ -52,27 +151,215 @@ public class Instance {
 
         durations = new int[numJobs][numTasks];
         machines = new int[numJobs][numTasks];
+
+        tasks = new Task[numJobs * numTasks];
+        for(int job = 0 ; job < numJobs ; job++) {
+            for(int task = 0 ; task < numTasks ; task++) {
+                tasks[operation(job, task)] = new Task(job, task);
+            }
+        }
+
+        taskOnMachine = new int[numJobs][numMachines];
+        operationsOnMachine = new int[numMachines][];
+        remainingWork = new int[numJobs * numTasks];
+        machineLoad = new int[numMachines];
+    }
+
+    /** Builds the indexes derived from the machines of the tasks, must be called once they are all known. */
+    void buildIndexes() {
+        int[] numOnMachine = new int[numMachines];
+        for(int job = 0 ; job < numJobs ; job++) {
+            Arrays.fill(taskOnMachine[job], -1);
+            for(int task = 0 ; task < numTasks ; task++) {
+                int m = machine(job, task);
+                if(taskOnMachine[job][m] == -1) // keep the first task of the job on this machine
+                    taskOnMachine[job][m] = task;
+                numOnMachine[m]++;
+            }
+        }
+        for(int m = 0 ; m < numMachines ; m++) {
+            operationsOnMachine[m] = new int[numOnMachine[m]];
+            numOnMachine[m] = 0;
+        }
+        for(int job = 0 ; job < numJobs ; job++) {
+            for(int task = 0 ; task < numTasks ; task++) {
+                int m = machine(job, task);
+                operationsOnMachine[m][numOnMachine[m]++] = operation(job, task);
+            }
+        }
+
+        Arrays.fill(machineLoad, 0);
+        lowerBound = 0;
+        for(int job = 0 ; job < numJobs ; job++) {
+            int remaining = 0;
+            for(int task = numTasks - 1 ; task >= 0 ; task--) {
+                remaining += duration(job, task);
+                remainingWork[operation(job, task)] = remaining;
+                machineLoad[machine(job, task)] += duration(job, task);
+            }
+            lowerBound = Math.max(lowerBound, remaining);
+        }
+        for(int m = 0 ; m < numMachines ; m++) {
+            lowerBound = Math.max(lowerBound, machineLoad[m]);
+        }
     }
 
-    /** Parses a instance from a file. */
+    /** First bytes of an instance in the binary format ("JSPB") */
+    static final int BINARY_MAGIC = 0x4A535042;
+
+    /** Version of the binary format written by writeBinary() */
+    static final int BINARY_VERSION = 1;
+
+    /** Size in bytes of the header of the binary format: magic, version, number of jobs, number of tasks
+     * and size in bytes of the values */
+    private static final int BINARY_HEADER_SIZE = 5 * Integer.BYTES;
+
+    /** First two bytes of a gzip stream */
+    private static final int GZIP_MAGIC = 0x1F8B;
+
+    /** Reads an instance from a file, either in the text format of JSPLIB (possibly compressed with gzip) or in
+     * the binary format (see writeBinary), the format being detected from the first bytes of the file. */
     public static Instance fromFile(Path path) throws IOException {
-        Iterator<String> lines = Files.readAllLines(path).stream()
-                .filter(l -> !l.startsWith("#"))
-                .collect(Collectors.toList())
-                .iterator();
-
-        Scanner header = new Scanner(lines.next());
-        int num_jobs = header.nextInt();
-        int num_tasks = header.nextInt();
+        int magic = magicOf(path);
+        if(magic == BINARY_MAGIC)
+            return fromBinaryFile(path);
+        if(magic >>> 16 == GZIP_MAGIC) {
+            try(InputStream in = Files.newInputStream(path)) {
+                return fromStream(in);
+            }
+        }
+        return fromTextFile(path);
+    }
+
+    /** Returns the first four bytes of the file as a big-endian integer, 0 if it is shorter. */
+    private static int magicOf(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while(magic.hasRemaining() && channel.read(magic) >= 0);
+            return magic.hasRemaining() ? 0 : magic.getInt(0);
+        }
+    }
+
+    /** Reads an instance in the binary format by mapping the file in memory.
+     *
+     * The machines and durations are copied directly from the mapped file into the arrays of the instance.
+     */
+    public static Instance fromBinaryFile(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size < BINARY_HEADER_SIZE)
+                throw new IOException("Truncated binary instance: "+path);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if(buffer.getInt() != BINARY_MAGIC)
+                throw new IOException("Not a binary instance: "+path);
+            int version = buffer.getInt();
+            if(version != BINARY_VERSION)
+                throw new IOException("Unsupported version "+version+" of binary instance: "+path);
+            int num_jobs = buffer.getInt();
+            int num_tasks = buffer.getInt();
+            int valueSize = buffer.getInt();
+            if(num_jobs < 0 || num_tasks < 0 || (valueSize != Short.BYTES && valueSize != Integer.BYTES)
+                    || size != BINARY_HEADER_SIZE + 2L * num_jobs * num_tasks * valueSize)
+                throw new IOException("Invalid header of binary instance: "+path);
+
+            Instance pb = new Instance(num_jobs, num_tasks);
+            if(valueSize == Integer.BYTES) {
+                IntBuffer values = buffer.asIntBuffer();
+                for(int job = 0 ; job<num_jobs ; job++)
+                    values.get(pb.machines[job]);
+                for(int job = 0 ; job<num_jobs ; job++)
+                    values.get(pb.durations[job]);
+            } else {
+                ShortBuffer values = buffer.asShortBuffer();
+                for(int[] row : pb.machines)
+                    for(int task = 0 ; task<num_tasks ; task++)
+                        row[task] = Short.toUnsignedInt(values.get());
+                for(int[] row : pb.durations)
+                    for(int task = 0 ; task<num_tasks ; task++)
+                        row[task] = Short.toUnsignedInt(values.get());
+            }
+            pb.buildIndexes();
+
+            return pb;
+        }
+    }
+
+    /** Writes this instance in the binary format.
+     *
+     * The file contains a header of five 32 bits integers (magic number, version, number of jobs, number
+     * of tasks and size in bytes of the values) followed by the machines of all tasks, job by job, then by
+     * their durations in the same order. Values are stored on 2 bytes (unsigned) if they all fit, on 4 bytes
+     * otherwise. All integers are stored in big-endian order.
+     */
+    public void writeBinary(Path path) throws IOException {
+        int maxValue = 0;
+        for(int job = 0 ; job<numJobs ; job++) {
+            for(int task = 0 ; task<numTasks ; task++) {
+                maxValue = Math.max(maxValue, Math.max(machines[job][task], durations[job][task]));
+            }
+        }
+        int valueSize = maxValue <= 0xFFFF ? Short.BYTES : Integer.BYTES;
+
+        ByteBuffer buffer = ByteBuffer.allocate(BINARY_HEADER_SIZE + 2 * numOperations() * valueSize);
+        buffer.putInt(BINARY_MAGIC).putInt(BINARY_VERSION).putInt(numJobs).putInt(numTasks).putInt(valueSize);
+        if(valueSize == Integer.BYTES) {
+            IntBuffer values = buffer.asIntBuffer();
+            for(int job = 0 ; job<numJobs ; job++)
+                values.put(machines[job]);
+            for(int job = 0 ; job<numJobs ; job++)
+                values.put(durations[job]);
+        } else {
+            ShortBuffer values = buffer.asShortBuffer();
+            for(int[] row : machines)
+                for(int value : row)
+                    values.put((short) value);
+            for(int[] row : durations)
+                for(int value : row)
+                    values.put((short) value);
+        }
+        buffer.rewind();
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    /** Parses a instance from a file in the text format of JSPLIB. */
+    public static Instance fromTextFile(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return fromChannel(channel);
+        }
+    }
+
+    /** Parses a instance in the text format of JSPLIB from a stream, for instance System.in.
+     * The stream is decompressed if it starts with the magic bytes of gzip. It is not closed. */
+    public static Instance fromStream(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(2);
+        int magic = (buffered.read() << 8) | buffered.read();
+        buffered.reset();
+        InputStream text = magic == GZIP_MAGIC ? new GZIPInputStream(buffered) : buffered;
+        return fromChannel(Channels.newChannel(text));
+    }
+
+    /** Parses a instance in the text format of JSPLIB from a channel, which is not closed.
+     * Lines or ends of lines starting with '#' are comments. */
+    public static Instance fromChannel(ReadableByteChannel channel) throws IOException {
+        InstanceTokenizer tokens = new InstanceTokenizer(channel);
+        int num_jobs = tokens.nextInt();
+        int num_tasks = tokens.nextInt();
         Instance pb = new Instance(num_jobs, num_tasks);
 
         for(int job = 0 ; job<num_jobs ; job++) {
-            Scanner line = new Scanner(lines.next());
             for(int task = 0 ; task < num_tasks ; task++) {
-                pb.machines[job][task] = line.nextInt();
-                pb.durations[job][task] = line.nextInt();
+                pb.machines[job][task] = tokens.nextInt();
+                pb.durations[job][task] = tokens.nextInt();
             }
         }
+        pb.buildIndexes();
 
         return pb;
     }
@@ -0,0 +1,75 @@
+package jobshop;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Instances of a directory, loaded once and shared by all solvers and runs.
+ *
+ * Instances are never modified once loaded, so the same object can be used concurrently by several solvers.
+ * With soft references, the cached instances may be reclaimed by the garbage collector when memory is low,
+ * they are then loaded again on their next use.
+ */
+public class InstanceCache {
+
+    /** Cache of the instances/ directory shared by the whole process. */
+    private static final InstanceCache shared = new InstanceCache(Paths.get("instances/"), false);
+
+    /** Returns the cache of the instances/ directory shared by the whole process. */
+    public static InstanceCache shared() {
+        return shared;
+    }
+
+    /** A cached instance, held either strongly or through a soft reference. */
+    private static class Entry {
+        final Instance strong;
+        final SoftReference<Instance> soft;
+
+        Entry(Instance instance, boolean softReference) {
+            this.strong = softReference ? null : instance;
+            this.soft = softReference ? new SoftReference<>(instance) : null;
+        }
+
+        /** The cached instance, null if it has been reclaimed. */
+        Instance get() {
+            return strong != null ? strong : soft.get();
+        }
+    }
+
+    private final Path directory;
+    private final boolean softReferences;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /** Creates an empty cache of the instances of the given directory. */
+    public InstanceCache(Path directory, boolean softReferences) {
+        this.directory = directory;
+        this.softReferences = softReferences;
+    }
+
+    /** Returns the instance of the given name, loading it if it is not in the cache.
+     * If several threads load the same instance at the same time, they all get the same object. */
+    public Instance get(String name) throws IOException {
+        while(true) {
+            Entry entry = entries.get(name);
+            Instance instance = entry == null ? null : entry.get();
+            if(instance != null)
+                return instance;
+
+            Instance loaded = Instance.fromFile(directory.resolve(name));
+            Entry fresh = new Entry(loaded, softReferences);
+            // keep the instance loaded by another thread in the meantime, if any
+            Entry kept = entries.compute(name, (key, current) ->
+                    current != null && current.get() != null ? current : fresh);
+            instance = kept.get();
+            if(instance != null)
+                return instance;
+        }
+    }
+
+    /** Removes all instances from the cache. */
+    public void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,30 @@
+package jobshop;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/** Converts instances in the text format of JSPLIB to the binary format (see Instance.writeBinary).
+ *
+ * Usage: InstanceConverter OUTPUT_DIR INSTANCE_FILE...
+ * Each instance is written in OUTPUT_DIR under the same file name.
+ */
+public class InstanceConverter {
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("usage: InstanceConverter OUTPUT_DIR INSTANCE_FILE...");
+            System.exit(1);
+        }
+        Path outputDir = Paths.get(args[0]);
+        Files.createDirectories(outputDir);
+
+        for(int i = 1 ; i < args.length ; i++) {
+            Path input = Paths.get(args[i]);
+            Path output = outputDir.resolve(input.getFileName());
+            Instance.fromFile(input).writeBinary(output);
+            System.out.println(input + " -> " + output + " (" + Files.size(input) + " -> " + Files.size(output) + " bytes)");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package jobshop;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/** Reads the non negative integers of an instance in the text format directly from the bytes of a channel.
+ *
+ * Integers are separated by whitespace, and everything from a '#' to the end of the line is a comment.
+ * The bytes are read in a fixed buffer so that no object is allocated per line or per integer.
+ */
+class InstanceTokenizer {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] bytes = buffer.array();
+
+    // index of the next byte to read in the buffer and number of bytes available
+    private int position = 0;
+    private int limit = 0;
+
+    InstanceTokenizer(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /** Returns the next byte of the channel, -1 at its end. */
+    private int read() throws IOException {
+        if(position == limit) {
+            buffer.clear();
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while(read == 0);
+            if(read < 0)
+                return -1;
+            position = 0;
+            limit = read;
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    /** Parses the next integer.
+     * @throws IOException if the end of the channel is reached or if an unexpected character is found. */
+    int nextInt() throws IOException {
+        //Skip whitespace and comments
+        int c = read();
+        while(c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '#') {
+            if(c == '#') {
+                while(c != '\n' && c != -1)
+                    c = read();
+            }
+            c = read();
+        }
+        if(c == -1)
+            throw new IOException("Unexpected end of instance");
+        if(c < '0' || c > '9')
+            throw new IOException("Unexpected character '"+(char) c+"' in instance");
+
+        long value = 0;
+        while(c >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            if(value > Integer.MAX_VALUE)
+                throw new IOException("Integer too large in instance");
+            c = read();
+        }
+        if(c == '#')
+            position--; // the comment starts right after the integer, it is skipped by the next call
+        else if(c != -1 && c != ' ' && c != '\t' && c != '\n' && c != '\r')
+            throw new IOException("Unexpected character '"+(char) c+"' in instance");
+        return (int) value;
+    }
+}
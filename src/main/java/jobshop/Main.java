@@ -1,12 +1,13 @@
 package jobshop;
 
 import java.io.PrintStream;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 import jobshop.encodings.TabooSolver;
@@ -16,6 +17,7 @@ import jobshop.solvers.GreedySolverLRPT;
 import jobshop.solvers.GreedySolverEST_LRPT;
 import jobshop.solvers.GreedySolverEST_SPT;
 import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
 import net.sourceforge.argparse4j.inf.Namespace;
@@ -23,7 +25,9 @@ import net.sourceforge.argparse4j.inf.Namespace;
 
 public class Main {
 
-    /** All solvers available in this program */
+    /** All solvers available in this program.
+     * The same solver may be run concurrently on several instances (see --parallel):
+     * solvers must not keep any state between calls to solve(). */
     private static HashMap<String, Solver> solvers;
     static {
         solvers = new HashMap<>();
@@ -33,6 +37,12 @@ public class Main {
         solvers.put("grLRPT", new GreedySolverLRPT());
         solvers.put("grEST_SPT", new GreedySolverEST_SPT());
         solvers.put("grEST_LRPT", new GreedySolverEST_LRPT());
+        solvers.put("grEST_MWKR", new DispatchSolver(Dispatcher.Filter.EST, PriorityRule.MWKR.then(PriorityRule.SPT)));
+        solvers.put("grEST_MOR", new DispatchSolver(Dispatcher.Filter.EST, PriorityRule.MOR.then(PriorityRule.LRPT)));
+        solvers.put("grECT_LRPT", new DispatchSolver(Dispatcher.Filter.ECT, PriorityRule.LRPT));
+        solvers.put("grEST_FIFO", new DispatchSolver(Dispatcher.Filter.EST, PriorityRule.FIFO.then(PriorityRule.random(0))));
+        solvers.put("grGT_SPT", new GifflerThompsonSolver(PriorityRule.SPT));
+        solvers.put("grGT_MWKR", new GifflerThompsonSolver(PriorityRule.MWKR.then(PriorityRule.SPT)));
         solvers.put("desc", new DescentSolver());
         solvers.put("taboo10_10", new TabooSolver(10,10));
         solvers.put("taboo50_10", new TabooSolver(50,10));
@@ -41,10 +51,38 @@ public class Main {
         solvers.put("taboo20_5", new TabooSolver(20,5));
         solvers.put("taboo20_10", new TabooSolver(20,10));
         solvers.put("taboo1000_50", new TabooSolver(1000,50));
+        solvers.put("tabooInf_10", new TabooSolver(10));
+        solvers.put("tabooInf_50", new TabooSolver(50));
+        int cores = Runtime.getRuntime().availableProcessors();
+        solvers.put("descPar", new DescentSolver(cores));
+        solvers.put("tabooPar1000_50", new TabooSolver(1000,50,cores));
+        solvers.put("multiDesc", new MultiStartDescentSolver(cores));
+        solvers.put("grasp", new GraspSolver(cores));
+        solvers.put("coopTaboo", new CooperativeTabooSolver(Math.max(2, cores), 10, 1000));
         // add new solvers here
     }
 
 
+    /** Result of a solver on an instance, along with the time it took. */
+    private static class Run {
+        final Result result;
+        final long runtime;
+
+        Run(Result result, long runtime) {
+            this.result = result;
+            this.runtime = runtime;
+        }
+
+        /** Runs the solver, its deadline being set when the run actually starts and not when it is submitted. */
+        static Run of(Solver solver, Instance instance, long solveTimeMs) {
+            long start = System.currentTimeMillis();
+            long deadline = start + solveTimeMs;
+            Result result = solver.solve(instance, deadline);
+            return new Run(result, System.currentTimeMillis() - start);
+        }
+    }
+
+
     public static void main(String[] args) {
         ArgumentParser parser = ArgumentParsers.newFor("jsp-solver").build()
                 .defaultHelp(true)
@@ -64,6 +102,16 @@ public class Main {
                 .required(true)
                 .help("Instance(s) to solve (space separated if more than one)");
 
+        parser.addArgument("--stats")
+                .action(Arguments.storeTrue())
+                .help("Also print the number of evaluations per second, the time to find the best solution " +
+                        "(in ms) and the number of constructions per second of the solvers reporting statistics");
+
+        parser.addArgument("--parallel")
+                .setDefault(1)
+                .type(Integer.class)
+                .help("Number of (instance, solver) runs executed concurrently");
+
         Namespace ns = null;
         try {
             ns = parser.parseArgs(args);
@@ -74,8 +122,16 @@ public class Main {
 
         PrintStream output = System.out;
 
+        boolean printStatistics = ns.getBoolean("stats");
+
         long solveTimeMs = ns.getLong("timeout") * 1000;
 
+        int parallelism = ns.getInt("parallel");
+        if(parallelism < 1) {
+            System.err.println("ERROR: the number of parallel runs should be at least 1.");
+            System.exit(1);
+        }
+
         List<String> solversToTest = ns.getList("solver");
         for(String solverName : solversToTest) {
             if(!solvers.containsKey(solverName)) {
@@ -100,47 +156,72 @@ public class Main {
         float[] runtimes = new float[solversToTest.size()];
         float[] distances = new float[solversToTest.size()];
 
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
         try {
             output.print(  "                         ");
             for(String s : solversToTest)
-                output.printf("%-30s", s);
+                output.printf(printStatistics ? "%-60s" : "%-30s", s);
             output.println();
             output.print("instance size  best      ");
             for(String s : solversToTest) {
                 output.print("runtime makespan ecart        ");
+                if(printStatistics)
+                    output.print("  eval/s   ttb  cons/s        ");
             }
             output.println();
 
-
+            // submit one run for each (instance, solver) pair, they are started in this order
+            List<Instance> loadedInstances = new ArrayList<>();
+            List<List<Future<Run>>> runs = new ArrayList<>();
             for(String instanceName : instances) {
-                int bestKnown = BestKnownResult.of(instanceName);
+                Instance instance = InstanceCache.shared().get(instanceName);
+                loadedInstances.add(instance);
 
+                List<Future<Run>> instanceRuns = new ArrayList<>();
+                for(String solverName : solversToTest) {
+                    Solver solver = solvers.get(solverName);
+                    instanceRuns.add(pool.submit(() -> Run.of(solver, instance, solveTimeMs)));
+                }
+                runs.add(instanceRuns);
+            }
 
-                Path path = Paths.get("instances/", instanceName);
-                Instance instance = Instance.fromFile(path);
+            // print the results in order, waiting for each of them to be available
+            for(int instanceId = 0 ; instanceId < instances.size() ; instanceId++) {
+                String instanceName = instances.get(instanceId);
+                Instance instance = loadedInstances.get(instanceId);
+                int bestKnown = BestKnownResult.of(instanceName);
 
                 output.printf("%-8s %-5s %4d      ",instanceName, instance.numJobs +"x"+instance.numTasks, bestKnown);
 
                 for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
-                    String solverName = solversToTest.get(solverId);
-                    Solver solver = solvers.get(solverName);
-                    long start = System.currentTimeMillis();
-                    long deadline = System.currentTimeMillis() + solveTimeMs;
-                    Result result = solver.solve(instance, deadline);
-                    long runtime = System.currentTimeMillis() - start;
+                    Run run = runs.get(instanceId).get(solverId).get();
+                    Result result = run.result;
 
-                    if(!result.schedule.isValid()) {
+                    List<Schedule.Violation> violations = result.schedule.violations();
+                    if(!violations.isEmpty()) {
                         System.err.println("ERROR: solver returned an invalid schedule");
+                        for(Schedule.Violation violation : violations)
+                            System.err.println("       " + violation);
                         System.exit(1);
                     }
 
                     assert result.schedule.isValid();
                     int makespan = result.schedule.makespan();
                     float dist = 100f * (makespan - bestKnown) / (float) bestKnown;
-                    runtimes[solverId] += (float) runtime / (float) instances.size();
+                    runtimes[solverId] += (float) run.runtime / (float) instances.size();
                     distances[solverId] += dist / (float) instances.size();
 
-                    output.printf("%7d %8s %5.1f        ", runtime, makespan, dist);
+                    output.printf("%7d %8s %5.1f        ", run.runtime, makespan, dist);
+                    if(printStatistics) {
+                        SearchStatistics statistics = result.statistics;
+                        String evaluations = statistics == null ? "-"
+                                : String.format("%.0f", statistics.evaluationsPerSecond());
+                        String timeToBest = statistics == null || statistics.timeToBestNanos() < 0 ? "-"
+                                : Long.toString(statistics.timeToBestNanos() / 1000000);
+                        String constructions = statistics == null || statistics.constructions == 0 ? "-"
+                                : String.format("%.0f", statistics.constructionsPerSecond());
+                        output.printf("%8s %5s %7s        ", evaluations, timeToBest, constructions);
+                    }
                     output.flush();
                 }
                 output.println();
@@ -151,6 +232,8 @@ public class Main {
             output.printf("%-8s %-5s %4s      ", "AVG", "-", "-");
             for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
                 output.printf("%7.1f %8s %5.1f        ", runtimes[solverId], "-", distances[solverId]);
+                if(printStatistics)
+                    output.printf("%8s %5s %7s        ", "-", "-", "-");
             }
 
 
@@ -158,6 +241,8 @@ public class Main {
         } catch (Exception e) {
             e.printStackTrace();
             System.exit(1);
+        } finally {
+            pool.shutdown();
         }
     }
 }
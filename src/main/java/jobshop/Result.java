@@ -5,9 +5,14 @@ import java.util.Optional;
 public class Result {
 
     public Result(Instance instance, Schedule schedule, ExitCause cause) {
+        this(instance, schedule, cause, null);
+    }
+
+    public Result(Instance instance, Schedule schedule, ExitCause cause, SearchStatistics statistics) {
         this.instance = instance;
         this.schedule = schedule;
         this.cause = cause;
+        this.statistics = statistics;
     }
 
     public enum ExitCause {
@@ -17,6 +22,8 @@ public class Result {
     public final Instance instance;
     public final Schedule schedule;
     public final ExitCause cause;
+    /** Statistics of the search, null if the solver does not report any */
+    public final SearchStatistics statistics;
 
 
 }
@@ -12,6 +12,10 @@ public class Schedule {
     // times[j][i] is the start time of task (j,i) : i^th task of the j^th job
     final int[][] times;
 
+    // for each operation (see Instance.operation), the task of its job or machine that ends exactly
+    // when it starts, -1 if it starts at time 0. Computed on the first call to criticalPath() if unknown.
+    private int[] criticalPredecessors;
+
     public Schedule(Instance pb, int[][] times) {
         this.pb = pb;
         this.times = new int[pb.numJobs][];
@@ -20,39 +24,123 @@ public class Schedule {
         }
     }
 
+    /** Creates a schedule whose critical predecessors are already known, typically from the evaluation
+     * of a DisjunctiveGraph. */
+    public Schedule(Instance pb, int[][] times, int[] criticalPredecessors) {
+        this(pb, times);
+        this.criticalPredecessors = Arrays.copyOf(criticalPredecessors, pb.numOperations());
+    }
+
     public int startTime(int job, int task) {
         return times[job][task];
     }
 
+    /** A constraint of the problem that is violated by a schedule. */
+    public static final class Violation {
+
+        public enum Kind {
+            /** a task starts before time 0 */
+            NegativeStartTime,
+            /** a task starts before the end of the previous task of its job */
+            JobPrecedence,
+            /** two tasks are executed at the same time on the same machine */
+            MachineOverlap
+        }
+
+        public final Kind kind;
+        /** task violating the constraint (the one executing first for MachineOverlap) */
+        public final Task first;
+        /** other task involved in the constraint, null for NegativeStartTime */
+        public final Task second;
+
+        Violation(Kind kind, Task first, Task second) {
+            this.kind = kind;
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + first + (second == null ? "" : " " + second);
+        }
+    }
+
     /** Returns true if this schedule is valid (no constraint is violated) */
     public boolean isValid() {
+        return violations(false).isEmpty();
+    }
+
+    /** Returns all constraints violated by this schedule. */
+    public List<Violation> violations() {
+        return violations(false);
+    }
+
+    /** Returns the constraints violated by this schedule.
+     *
+     * The tasks of each machine are sorted by start time so that only consecutive tasks
+     * have to be compared, the machines being optionally checked in parallel.
+     * For overlapping tasks of a machine, only the overlaps between consecutive tasks are reported.
+     */
+    public List<Violation> violations(boolean parallel) {
+        List<Violation> violations = new ArrayList<>();
         for(int j = 0 ; j<pb.numJobs ; j++) {
-            for(int t = 1 ; t<pb.numTasks ; t++) {
-                if(startTime(j, t-1) + pb.duration(j, t-1) > startTime(j, t))
-                    return false;
-            }
             for(int t = 0 ; t<pb.numTasks ; t++) {
                 if(startTime(j, t) < 0)
-                    return false;
+                    violations.add(new Violation(Violation.Kind.NegativeStartTime, pb.task(j, t), null));
+            }
+            for(int t = 1 ; t<pb.numTasks ; t++) {
+                if(startTime(j, t-1) + pb.duration(j, t-1) > startTime(j, t))
+                    violations.add(new Violation(Violation.Kind.JobPrecedence, pb.task(j, t-1), pb.task(j, t)));
             }
         }
 
-        for (int machine = 0 ; machine < pb.numMachines ; machine++) {
-            for(int j1=0 ; j1<pb.numJobs ; j1++) {
-                int t1 = pb.task_with_machine(j1, machine);
-                for(int j2=j1+1 ; j2<pb.numJobs ; j2++) {
-                    int t2 = pb.task_with_machine(j2, machine);
+        IntStream machines = IntStream.range(0, pb.numMachines);
+        if(parallel)
+            machines = machines.parallel();
+        machines.mapToObj(this::machineViolations)
+                .flatMap(List::stream)
+                .forEachOrdered(violations::add);
 
-                    boolean t1_first = startTime(j1, t1) + pb.duration(j1, t1) <= startTime(j2, t2);
-                    boolean t2_first = startTime(j2, t2) + pb.duration(j2, t2) <= startTime(j1, t1);
+        return violations;
+    }
 
-                    if(!t1_first && !t2_first)
-                        return false;
-                }
+    /** Returns the operations of the given machine sorted by start time, using the end time and then the
+     * operation number to break ties, so that a task of duration 0 comes before the tasks starting at the same
+     * time. Each operation is given in the lower 32 bits of its element. */
+    private long[] sortedByStartTime(int machine) {
+        int[] ops = pb.operationsOnMachine(machine);
+        long[] byStart = new long[ops.length];
+        for(int i = 0 ; i < ops.length ; i++) {
+            byStart[i] = ((long) startTime(pb.task(ops[i])) << 32) | ops[i];
+        }
+        Arrays.sort(byStart);
+
+        // order the tasks starting at the same time by end time, such groups are small
+        for(int i = 1 ; i < byStart.length ; i++) {
+            long cur = byStart[i];
+            int j = i;
+            while(j > 0 && (byStart[j-1] >>> 32) == (cur >>> 32)
+                    && pb.durationOf((int) byStart[j-1]) > pb.durationOf((int) cur)) {
+                byStart[j] = byStart[j-1];
+                j--;
             }
+            byStart[j] = cur;
         }
+        return byStart;
+    }
 
-        return true;
+    /** Returns the overlaps between consecutive tasks of the given machine. */
+    private List<Violation> machineViolations(int machine) {
+        long[] byStart = sortedByStartTime(machine);
+
+        List<Violation> violations = new ArrayList<>(0);
+        for(int i = 1 ; i < byStart.length ; i++) {
+            Task prev = pb.task((int) byStart[i-1]);
+            Task next = pb.task((int) byStart[i]);
+            if(endTime(prev) > startTime(next))
+                violations.add(new Violation(Violation.Kind.MachineOverlap, prev, next));
+        }
+        return violations;
     }
 
     public int makespan() {
@@ -86,53 +174,61 @@ public class Schedule {
     }
 
     public List<Task> criticalPath() {
+        int[] preds = criticalPredecessors();
+
         // select task with greatest end time
-        Task ldd = IntStream.range(0, pb.numJobs)
-                .mapToObj(j -> new Task(j, pb.numTasks-1))
-                .max(Comparator.comparing(this::endTime))
-                .get();
+        Task ldd = pb.task(0, pb.numTasks-1);
+        for(int j = 1 ; j<pb.numJobs ; j++) {
+            Task last = pb.task(j, pb.numTasks-1);
+            if(endTime(last) > endTime(ldd))
+                ldd = last;
+        }
         assert endTime(ldd) == makespan();
 
         // list that will contain the critical path.
         // we construct it from the end, starting with the
-        // task that finishes last
-        LinkedList<Task> path = new LinkedList<>();
-        path.add(0,ldd);
-
-        // keep adding tasks to the path until the first task in the path
-        // starts a time 0
-        while(startTime(path.getFirst()) != 0) {
-            Task cur = path.getFirst();
-            int machine = pb.machine(cur.job, cur.task);
-
-            // will contain the task that was delaying the start
-            // of our current task
-            Optional<Task> latestPredecessor = Optional.empty();
-
-            if(cur.task > 0) {
-                // our current task has a predecessor on the job
-                Task predOnJob = new Task(cur.job, cur.task -1);
-
-                // if it was the delaying task, save it to predecessor
-                if(endTime(predOnJob) == startTime(cur))
-                    latestPredecessor = Optional.of(predOnJob);
-            }
-            if(!latestPredecessor.isPresent()) {
-                // no latest predecessor found yet, look among tasks executing on the same machine
-                latestPredecessor = IntStream.range(0, pb.numJobs)
-                        .mapToObj(j -> new Task(j, pb.task_with_machine(j, machine)))
-                        .filter(t -> endTime(t) == startTime(cur))
-                        .findFirst();
-            }
-            // at this point we should have identified a latest predecessor, either on the job or on the machine
-            assert latestPredecessor.isPresent() && endTime(latestPredecessor.get()) == startTime(cur);
-            // insert predecessor at the beginning of the path
-            path.add(0, latestPredecessor.get());
+        // task that finishes last and following the task that was delaying each task
+        // until we reach a task starting at time 0
+        ArrayList<Task> path = new ArrayList<>();
+        for(int op = pb.operation(ldd) ; op != -1 ; op = preds[op]) {
+            path.add(pb.task(op));
         }
+        Collections.reverse(path);
         assert isCriticalPath(path);
         return path;
     }
 
+    /** For each operation, the task that was delaying it: the previous task of its job or machine that ends
+     * exactly when it starts, if any. */
+    private int[] criticalPredecessors() {
+        if(criticalPredecessors == null) {
+            int[] preds = new int[pb.numOperations()];
+
+            // the previous task on a machine is the previous one when sorted by start time
+            int[] machinePred = new int[pb.numOperations()];
+            for(int m = 0 ; m < pb.numMachines ; m++) {
+                long[] byStart = sortedByStartTime(m);
+                for(int i = 0 ; i < byStart.length ; i++) {
+                    machinePred[(int) byStart[i]] = i == 0 ? -1 : (int) byStart[i-1];
+                }
+            }
+
+            for(int op = 0 ; op < preds.length ; op++) {
+                Task cur = pb.task(op);
+                int start = startTime(cur);
+                preds[op] = -1;
+                if(start == 0)
+                    continue;
+                if(cur.task > 0 && endTime(pb.task(op-1)) == start)
+                    preds[op] = op-1;
+                else if(machinePred[op] != -1 && endTime(pb.task(machinePred[op])) == start)
+                    preds[op] = machinePred[op];
+            }
+            criticalPredecessors = preds;
+        }
+        return criticalPredecessors;
+    }
+
     // start times of each job and task
     // times[j][i] is the start time of task (j,i) : i^th task of the j^th job
     public String toString(){
@@ -0,0 +1,198 @@
+package jobshop;
+
+import java.util.Arrays;
+
+/** Statistics about the search performed by a solver, to understand where its time budget goes.
+ *
+ * The search is considered to start when the statistics are created and to end when stop() is called.
+ * The counters are plain fields so that updating them costs nothing, an instance must only be updated by
+ * the thread running the search.
+ */
+public class SearchStatistics {
+
+    /** Value of System.nanoTime() when the search started */
+    public final long startNanos = System.nanoTime();
+
+    /** Number of iterations of the main loop of the solver */
+    public long iterations = 0;
+
+    /** Number of solutions whose makespan has been computed */
+    public long evaluations = 0;
+
+    /** Number of neighbors generated by the local searches, evaluated or not */
+    public long neighbors = 0;
+
+    /** Time spent in the search, in nanoseconds */
+    public long searchTimeNanos = 0;
+
+    /** Number of times the search was started again from a new solution (multi-start solvers) */
+    public long restarts = 0;
+
+    /** Number of local optima reached by the search (multi-start solvers) */
+    public long localOptima = 0;
+
+    /** Number of solutions built by a constructive heuristic (multi-start solvers) */
+    public long constructions = 0;
+
+    /** Time spent building these solutions, in nanoseconds (summed over the threads of the search) */
+    public long constructionNanos = 0;
+
+    // trace of the improvements of the best solution: the i-th one was found improvementNanos[i] nanoseconds
+    // after the start of the search and has makespan improvementMakespans[i]
+    private long[] improvementNanos = new long[16];
+    private int[] improvementMakespans = new int[16];
+    private int numImprovements = 0;
+
+    /** Records that a new best solution with the given makespan has just been found. */
+    public void improved(int makespan) {
+        if(numImprovements == improvementNanos.length) {
+            improvementNanos = Arrays.copyOf(improvementNanos, 2 * numImprovements);
+            improvementMakespans = Arrays.copyOf(improvementMakespans, 2 * numImprovements);
+        }
+        improvementNanos[numImprovements] = System.nanoTime() - startNanos;
+        improvementMakespans[numImprovements] = makespan;
+        numImprovements++;
+    }
+
+    /** Remaining time after which a deadline is considered never reached, in nanoseconds (about 73 years) */
+    private static final long NEVER_NANOS = Long.MAX_VALUE / 4;
+
+    /** Converts a deadline given in the time base of System.currentTimeMillis() to the time base of
+     * System.nanoTime(), which is cheaper and monotonic. A deadline too far away to be represented,
+     * such as Long.MAX_VALUE, is never reached. The result must be checked with isPassed(). */
+    public long deadlineNanos(long deadline) {
+        long now = System.currentTimeMillis();
+        long remainingMillis = deadline <= now ? 0 : deadline - now;
+        long remainingNanos = remainingMillis >= NEVER_NANOS / 1000000L ? NEVER_NANOS : remainingMillis * 1000000L;
+        return startNanos + remainingNanos;
+    }
+
+    /** Whether the given deadline, obtained with deadlineNanos(), is passed.
+     * Times are compared by difference so that an overflow of System.nanoTime() does not matter. */
+    public static boolean isPassed(long deadlineNanos) {
+        return System.nanoTime() - deadlineNanos > 0;
+    }
+
+    /** Records the end of the search. */
+    public void stop() {
+        searchTimeNanos = System.nanoTime() - startNanos;
+    }
+
+    /** Adds the counters of another search, typically run concurrently as part of the same solver.
+     * The improvements of both searches are merged in time order, only the ones improving the best makespan
+     * found by both searches so far being kept, so that the trace is the one of the best solution of the solver. */
+    public void add(SearchStatistics other) {
+        iterations += other.iterations;
+        evaluations += other.evaluations;
+        neighbors += other.neighbors;
+        restarts += other.restarts;
+        localOptima += other.localOptima;
+        constructions += other.constructions;
+        constructionNanos += other.constructionNanos;
+        mergeImprovements(other);
+    }
+
+    /** Merges the trace of the improvements of another search into this one. */
+    private void mergeImprovements(SearchStatistics other) {
+        // times of the other search are relative to its own start
+        long offset = other.startNanos - startNanos;
+        int total = numImprovements + other.numImprovements;
+        long[] nanos = new long[Math.max(16, total)];
+        int[] makespans = new int[Math.max(16, total)];
+        int merged = 0;
+        int best = Integer.MAX_VALUE;
+        int i = 0;
+        int j = 0;
+        while(i < numImprovements || j < other.numImprovements) {
+            long time;
+            int makespan;
+            if(j == other.numImprovements
+                    || (i < numImprovements && improvementNanos[i] <= other.improvementNanos[j] + offset)) {
+                time = improvementNanos[i];
+                makespan = improvementMakespans[i];
+                i++;
+            } else {
+                time = other.improvementNanos[j] + offset;
+                makespan = other.improvementMakespans[j];
+                j++;
+            }
+            if(makespan < best) {
+                best = makespan;
+                nanos[merged] = time;
+                makespans[merged] = makespan;
+                merged++;
+            }
+        }
+        improvementNanos = nanos;
+        improvementMakespans = makespans;
+        numImprovements = merged;
+    }
+
+    /** Number of improvements of the best solution recorded. */
+    public int numImprovements() {
+        return numImprovements;
+    }
+
+    /** Time of the i-th improvement, in nanoseconds since the start of the search. */
+    public long improvementNanos(int i) {
+        return improvementNanos[i];
+    }
+
+    /** Makespan of the solution found by the i-th improvement. */
+    public int improvementMakespan(int i) {
+        return improvementMakespans[i];
+    }
+
+    /** Time at which the best solution was found, in nanoseconds since the start of the search,
+     * -1 if no improvement was recorded. */
+    public long timeToBestNanos() {
+        return numImprovements == 0 ? -1 : improvementNanos[numImprovements - 1];
+    }
+
+    /** Average number of iterations per second of search. */
+    public double iterationsPerSecond() {
+        return perSecond(iterations);
+    }
+
+    /** Average number of evaluations per second of search. */
+    public double evaluationsPerSecond() {
+        return perSecond(evaluations);
+    }
+
+    /** Number of events per second of search. */
+    private double perSecond(long count) {
+        if(searchTimeNanos <= 0)
+            return 0;
+        return count * 1e9 / searchTimeNanos;
+    }
+
+    /** Average number of restarts per second of search. */
+    public double restartsPerSecond() {
+        return perSecond(restarts);
+    }
+
+    /** Average number of local optima found per second of search. */
+    public double localOptimaPerSecond() {
+        return perSecond(localOptima);
+    }
+
+    /** Average number of constructions per second of search. */
+    public double constructionsPerSecond() {
+        return perSecond(constructions);
+    }
+
+    @Override
+    public String toString() {
+        String s = String.format("%d iterations in %.1f ms (%.0f it/s), %d evaluations (%.0f/s) of %d neighbors",
+                iterations, searchTimeNanos / 1e6, iterationsPerSecond(), evaluations, evaluationsPerSecond(), neighbors);
+        if(restarts > 0)
+            s += String.format(", %d restarts (%.1f/s), %d local optima (%.1f/s)",
+                    restarts, restartsPerSecond(), localOptima, localOptimaPerSecond());
+        if(constructions > 0)
+            s += String.format(", %d constructions (%.1f/s, %.1f ms spent building them)",
+                    constructions, constructionsPerSecond(), constructionNanos / 1e6);
+        if(numImprovements > 0)
+            s += String.format(", best found after %.1f ms", timeToBestNanos() / 1e6);
+        return s;
+    }
+}
@@ -0,0 +1,397 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+
+import java.util.Arrays;
+
+/** Disjunctive graph of a resource order, used to compute the start time of every task.
+ *
+ * Each task is identified by its operation number (see Instance.operation).
+ * The graph contains the arcs of the jobs (fixed by the instance) and the arcs of the machines
+ * (given by a ResourceOrder). The heads (earliest start times) of all operations are computed
+ * with a single topological sweep of the graph, which is linear in the number of operations.
+ *
+ * All arrays are allocated once so the same graph can be reused to evaluate many resource orders
+ * of the same instance.
+ *
+ * Once an order has been evaluated, the graph stays bound to it and neighbors of this order can be
+ * evaluated incrementally: trySwap() swaps two tasks of a machine and only recomputes the heads
+ * of the operations that come after the first swapped task in the topological order.
+ * The swap must then be either undone with undo() or kept with commit().
+ */
+public class DisjunctiveGraph {
+
+    public final Instance instance;
+
+    /** Number of operations in the graph (numJobs * numTasks) */
+    public final int numOps;
+
+    // duration of each operation
+    final int[] duration;
+
+    // for each operation, the previous and next operation on the same machine (-1 if none)
+    final int[] machinePred;
+    final int[] machineSucc;
+
+    // head[op] is the earliest start time of operation op
+    final int[] head;
+
+    // criticalPred[op] is the predecessor of op (on its job or machine) ending exactly when op starts,
+    // -1 if op starts at time 0
+    final int[] criticalPred;
+
+    // tail[op] is the length of the longest path from the end of op to the end of the schedule
+    final int[] tail;
+
+    // operations sorted in topological order (only valid after a successful evaluation)
+    final int[] topoOrder;
+
+    // topoPos[op] is the index of op in topoOrder
+    final int[] topoPos;
+
+    // maxEndBefore[k] is the greatest end time among the operations topoOrder[0..k-1]
+    private final int[] maxEndBefore;
+
+    // number of predecessors of each operation that have not been visited yet by the sweep
+    private final int[] inDegree;
+
+    // makespan of the last evaluated order, -1 if it contained a cycle
+    private int makespan = -1;
+
+    // order on which the graph was last evaluated
+    private ResourceOrder order;
+
+    // state saved by trySwap() to be able to undo it
+    private boolean swapPending = false;
+    private int swapMachine, swapT1, swapT2;
+    private int savedFrom;
+    private int savedMakespan;
+    private final int[] savedTopo;
+
+    public DisjunctiveGraph(Instance instance) {
+        this.instance = instance;
+        this.numOps = instance.numOperations();
+
+        duration = new int[numOps];
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            for(int task = 0 ; task < instance.numTasks ; task++) {
+                duration[instance.operation(job, task)] = instance.duration(job, task);
+            }
+        }
+        machinePred = new int[numOps];
+        machineSucc = new int[numOps];
+        head = new int[numOps];
+        criticalPred = new int[numOps];
+        tail = new int[numOps];
+        topoOrder = new int[numOps];
+        topoPos = new int[numOps];
+        maxEndBefore = new int[numOps+1];
+        inDegree = new int[numOps];
+        savedTopo = new int[numOps];
+    }
+
+    /** Replaces the machine arcs of the graph by the ones of the given resource order. */
+    private void loadMachineArcs(ResourceOrder order) {
+        Arrays.fill(machinePred, -1);
+        Arrays.fill(machineSucc, -1);
+        for(int m = 0 ; m < instance.numMachines ; m++) {
+            linkMachine(order, m, 0, instance.numJobs - 1);
+        }
+    }
+
+    /** Sets the machine arcs between the tasks at index from..to (included) on the given machine. */
+    private void linkMachine(ResourceOrder order, int machine, int from, int to) {
+        int prev = from == 0 ? -1 : order.operationOfMachine(machine, from-1);
+        for(int i = from ; i <= to ; i++) {
+            int op = order.operationOfMachine(machine, i);
+            if(op == -1) // partially filled order, no more task on this machine
+                break;
+            machinePred[op] = prev;
+            if(prev != -1)
+                machineSucc[prev] = op;
+            prev = op;
+        }
+        if(prev != -1 && to == instance.numJobs - 1)
+            machineSucc[prev] = -1;
+    }
+
+    /** Computes the start time of every operation for the given resource order.
+     *
+     * @return the makespan of the resulting schedule or -1 if the order contains a cycle (infeasible order).
+     */
+    public int evaluate(ResourceOrder order) {
+        if(swapPending)
+            throw new RuntimeException("A swap is pending, it should be committed or undone first");
+        this.order = order;
+        loadMachineArcs(order);
+        makespan = computeHeads(0);
+        if(makespan >= 0)
+            computeTails();
+        return makespan;
+    }
+
+    /** Topological sweep of the graph (Kahn's algorithm) that computes the heads of the operations
+     * located at index `from` or later in the current topological order (all operations if from = 0).
+     * The heads of the operations before `from` must not depend on the ones after it and
+     * savedTopo[from..] must contain the operations to visit.
+     *
+     * The topoOrder array is used as the queue of operations whose predecessors have all been visited.
+     * @return the makespan or -1 if the graph contains a cycle
+     */
+    private int computeHeads(int from) {
+        final int numTasks = instance.numTasks;
+        int queueEnd = from;
+        if(from == 0) {
+            for(int op = 0 ; op < numOps ; op++) {
+                int degree = (op % numTasks == 0 ? 0 : 1) + (machinePred[op] == -1 ? 0 : 1);
+                inDegree[op] = degree;
+                if(degree == 0)
+                    topoOrder[queueEnd++] = op;
+            }
+        } else {
+            // only count the predecessors that are themselves in the recomputed part,
+            // the others keep their position and head (savedTopo holds the previous order)
+            for(int k = from ; k < numOps ; k++) {
+                int op = savedTopo[k];
+                int mPred = machinePred[op];
+                int degree = (op % numTasks != 0 && topoPos[op-1] >= from ? 1 : 0)
+                        + (mPred != -1 && topoPos[mPred] >= from ? 1 : 0);
+                inDegree[op] = degree;
+                if(degree == 0)
+                    topoOrder[queueEnd++] = op;
+            }
+        }
+
+        int max = maxEndBefore[from];
+        for(int queueStart = from ; queueStart < queueEnd ; queueStart++) {
+            int op = topoOrder[queueStart];
+            topoPos[op] = queueStart;
+
+            // all predecessors have already been visited, their start times are known
+            max = Math.max(max, computeHead(op));
+            maxEndBefore[queueStart+1] = max;
+
+            // release the successors on the job and on the machine
+            if((op+1) % numTasks != 0 && --inDegree[op+1] == 0)
+                topoOrder[queueEnd++] = op+1;
+            int mSucc = machineSucc[op];
+            if(mSucc != -1 && --inDegree[mSucc] == 0)
+                topoOrder[queueEnd++] = mSucc;
+        }
+
+        // some operations were never released: they are part of a cycle
+        if(queueEnd < numOps)
+            return -1;
+        return max;
+    }
+
+    /** Computes the head of the given operation from the ones of its predecessors and records
+     * the predecessor that delays it.
+     * @return the end time of the operation
+     */
+    private int computeHead(int op) {
+        int start = 0;
+        int pred = -1;
+        if(op % instance.numTasks != 0) {
+            start = head[op-1] + duration[op-1];
+            pred = op-1;
+        }
+        int mPred = machinePred[op];
+        if(mPred != -1 && head[mPred] + duration[mPred] > start) {
+            start = head[mPred] + duration[mPred];
+            pred = mPred;
+        }
+        head[op] = start;
+        criticalPred[op] = start == 0 ? -1 : pred;
+        return start + duration[op];
+    }
+
+    /** Computes the tails of all operations by visiting them in reverse topological order. */
+    private void computeTails() {
+        final int numTasks = instance.numTasks;
+        for(int k = numOps - 1 ; k >= 0 ; k--) {
+            int op = topoOrder[k];
+            int q = 0;
+            if((op+1) % numTasks != 0)
+                q = tail[op+1] + duration[op+1];
+            int mSucc = machineSucc[op];
+            if(mSucc != -1)
+                q = Math.max(q, tail[mSucc] + duration[mSucc]);
+            tail[op] = q;
+        }
+    }
+
+    /** Swaps the tasks at index t1 and t2 of the given machine in the evaluated order and
+     * recomputes the heads of the operations that may be affected by the swap.
+     *
+     * The swap must be followed by a call to either undo() or commit().
+     * @return the makespan of the modified order or -1 if it contains a cycle.
+     */
+    public int trySwap(int machine, int t1, int t2) {
+        if(order == null || makespan < 0)
+            throw new RuntimeException("No feasible order has been evaluated on this graph");
+        if(swapPending)
+            throw new RuntimeException("A swap is already pending, it should be committed or undone first");
+        int lo = Math.min(t1, t2);
+        int hi = Math.max(t1, t2);
+
+        // nothing before the first swapped operation in the topological order can be delayed by the swap
+        int from = topoPos[order.operationOfMachine(machine, lo)];
+        System.arraycopy(topoOrder, from, savedTopo, from, numOps - from);
+        swapPending = true;
+        swapMachine = machine;
+        swapT1 = lo;
+        swapT2 = hi;
+        savedFrom = from;
+        savedMakespan = makespan;
+
+        swapTasks(machine, lo, hi);
+        makespan = computeHeads(from);
+        return makespan;
+    }
+
+    /** Lower bound of the makespan obtained by swapping the tasks at index t1 and t2 of the given machine,
+     * computed in constant time from the heads and tails of the current order (Taillard's estimate).
+     *
+     * The new heads and tails of the two swapped operations are computed from the ones of their neighbors
+     * on their job and machine, which are not modified by the swap. The estimate is the length of the longest
+     * path going through one of the swapped operations.
+     * Only swaps of adjacent tasks can be estimated, 0 is returned for the other ones.
+     */
+    public int estimateSwap(int machine, int t1, int t2) {
+        if(swapPending)
+            throw new RuntimeException("A swap is pending, it should be committed or undone first");
+        int lo = Math.min(t1, t2);
+        int hi = Math.max(t1, t2);
+        if(hi != lo + 1)
+            return 0;
+        final int numTasks = instance.numTasks;
+
+        // u is before v on the machine, the swap puts v before u
+        int u = order.operationOfMachine(machine, lo);
+        int v = order.operationOfMachine(machine, hi);
+        int mPred = machinePred[u];
+        int mSucc = machineSucc[v];
+
+        int headV = 0;
+        if(v % numTasks != 0)
+            headV = head[v-1] + duration[v-1];
+        if(mPred != -1)
+            headV = Math.max(headV, head[mPred] + duration[mPred]);
+        int headU = headV + duration[v];
+        if(u % numTasks != 0)
+            headU = Math.max(headU, head[u-1] + duration[u-1]);
+
+        int tailU = 0;
+        if((u+1) % numTasks != 0)
+            tailU = tail[u+1] + duration[u+1];
+        if(mSucc != -1)
+            tailU = Math.max(tailU, tail[mSucc] + duration[mSucc]);
+        int tailV = tailU + duration[u];
+        if((v+1) % numTasks != 0)
+            tailV = Math.max(tailV, tail[v+1] + duration[v+1]);
+
+        return Math.max(headV + duration[v] + tailV, headU + duration[u] + tailU);
+    }
+
+    /** Reverts the last call to trySwap(), restoring the order and its evaluation. */
+    public void undo() {
+        if(!swapPending)
+            throw new RuntimeException("No swap to undo");
+        swapTasks(swapMachine, swapT1, swapT2);
+        // the previous topological order is still valid for the restored graph, visiting it again gives back
+        // the previous heads
+        for(int k = savedFrom ; k < numOps ; k++) {
+            int op = savedTopo[k];
+            topoOrder[k] = op;
+            topoPos[op] = k;
+            maxEndBefore[k+1] = Math.max(maxEndBefore[k], computeHead(op));
+        }
+        makespan = savedMakespan;
+        swapPending = false;
+    }
+
+    /** Keeps the last call to trySwap() and updates the tails of the new order. */
+    public void commit() {
+        if(!swapPending)
+            throw new RuntimeException("No swap to commit");
+        if(makespan < 0)
+            throw new RuntimeException("Cannot commit a swap that creates a cycle");
+        computeTails();
+        swapPending = false;
+    }
+
+    /** Swaps two tasks of a machine in the order and updates the corresponding machine arcs. */
+    private void swapTasks(int machine, int lo, int hi) {
+        order.swapTasks(machine, lo, hi);
+        linkMachine(order, machine, lo, Math.min(hi + 1, instance.numJobs - 1));
+    }
+
+    /** Order on which the graph was last evaluated, modified in place by trySwap(). */
+    public ResourceOrder order() {
+        return order;
+    }
+
+    /** Makespan of the last evaluated order, -1 if it contained a cycle. */
+    public int makespan() {
+        return makespan;
+    }
+
+    /** Start time of the given operation in the last evaluated order. */
+    public int startTime(int op) {
+        return head[op];
+    }
+
+    /** Writes in `path` the operations of a critical path of the last evaluated order, from the first one
+     * (starting at time 0) to the last one (ending at the makespan). The path is read from the critical
+     * predecessors recorded during the evaluation, in time linear in its length.
+     *
+     * @param path array of at least numOps elements
+     * @return the number of operations in the critical path
+     */
+    public int criticalPath(int[] path) {
+        if(makespan < 0)
+            throw new RuntimeException("The last evaluated resource order contains a cycle");
+        // the path ends with the last task of the first job finishing at the makespan
+        int last = -1;
+        for(int job = 0 ; job < instance.numJobs && last == -1 ; job++) {
+            int op = instance.operation(job, instance.numTasks - 1);
+            if(head[op] + duration[op] == makespan)
+                last = op;
+        }
+
+        int length = 0;
+        for(int op = last ; op != -1 ; op = criticalPred[op]) {
+            path[length++] = op;
+        }
+        // the path was built from its end
+        for(int i = 0 ; i < length / 2 ; i++) {
+            int tmp = path[i];
+            path[i] = path[length - 1 - i];
+            path[length - 1 - i] = tmp;
+        }
+        return length;
+    }
+
+    /** Length of the longest path from the end of the given operation to the end of the schedule. */
+    public int tail(int op) {
+        return tail[op];
+    }
+
+    /** Writes the start times of the last evaluated order in the given numJobs x numTasks array. */
+    public void startTimes(int[][] times) {
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            System.arraycopy(head, job * instance.numTasks, times[job], 0, instance.numTasks);
+        }
+    }
+
+    /** Builds the schedule of the last evaluated order. */
+    public Schedule toSchedule() {
+        if(makespan < 0)
+            throw new RuntimeException("The last evaluated resource order contains a cycle");
+        int[][] times = new int[instance.numJobs][instance.numTasks];
+        startTimes(times);
+        return new Schedule(instance, times, criticalPred);
+    }
+}
@@ -37,10 +37,10 @@ public class JobNumbers extends Encoding {
             Task next = IntStream
                     // for all jobs numbers
                     .range(0, instance.numJobs)
-                    // build the next task for this job
-                    .mapToObj(j -> new Task(j, nextOnJob[j]))
-                    // only keep valid tasks (some jobs have no task left to be executed)
-                    .filter(t -> t.task < instance.numTasks)
+                    // only keep jobs with a task left to be executed
+                    .filter(j -> nextOnJob[j] < instance.numTasks)
+                    // get the next task for this job
+                    .mapToObj(j -> instance.task(j, nextOnJob[j]))
                     // select the task with the earliest execution time
                     .min(Comparator.comparing(t -> schedule.startTime(t.job, t.task)))
                     .get();
@@ -4,26 +4,36 @@ import jobshop.Encoding;
 import jobshop.Instance;
 import jobshop.Schedule;
 
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.Optional;
 import java.util.stream.IntStream;
 
 public class ResourceOrder extends Encoding {
 
-    // for each machine m, taskByMachine[m] is an array of tasks to be
-    // executed on this machine in the same order
-    public final Task[][] tasksByMachine;
+    // for each machine m, the operations to be executed on this machine, in order.
+    // The i-th operation of machine m is stored at index m * numJobs + i, a task is
+    // represented by its operation number (see Instance.operation) and an empty slot by -1.
+    final int[] operationsByMachine;
+
+    // for each operation, its index on its machine (-1 if not on its machine yet)
+    private final int[] positionOnMachine;
 
     // for each machine, indicate on many tasks have been initialized
     public final int[] nextFreeSlot;
 
+    // graph used to evaluate this order, built on the first call to toSchedule()
+    private DisjunctiveGraph graph;
+
     /** Creates a new empty resource order. */
     public ResourceOrder(Instance instance)
     {
         super(instance);
 
-        // matrix of null elements (null is the default value of objects)
-        tasksByMachine = new Task[instance.numMachines][instance.numJobs];
+        // no task on any machine
+        operationsByMachine = new int[instance.numMachines * instance.numJobs];
+        Arrays.fill(operationsByMachine, -1);
+        positionOnMachine = new int[instance.numOperations()];
+        Arrays.fill(positionOnMachine, -1);
 
         // no task scheduled on any machine (0 is the default value)
         nextFreeSlot = new int[instance.numMachines];
@@ -35,71 +45,128 @@ public class ResourceOrder extends Encoding {
         super(schedule.pb);
         Instance pb = schedule.pb;
 
-        this.tasksByMachine = new Task[pb.numMachines][];
+        this.operationsByMachine = new int[pb.numMachines * pb.numJobs];
+        this.positionOnMachine = new int[pb.numOperations()];
         this.nextFreeSlot = new int[instance.numMachines];
 
         for(int m = 0 ; m<schedule.pb.numMachines ; m++) {
             final int machine = m;
 
             // for thi machine, find all tasks that are executed on it and sort them by their start time
-            tasksByMachine[m] =
+            Task[] tasks =
                     IntStream.range(0, pb.numJobs) // all job numbers
-                            .mapToObj(j -> new Task(j, pb.task_with_machine(j, machine))) // all tasks on this machine (one per job)
+                            .mapToObj(j -> pb.task(j, pb.task_with_machine(j, machine))) // all tasks on this machine (one per job)
                             .sorted(Comparator.comparing(t -> schedule.startTime(t.job, t.task))) // sorted by start time
-                            .toArray(Task[]::new); // as new array and store in tasksByMachine
+                            .toArray(Task[]::new);
+            for(int i = 0 ; i < tasks.length ; i++) {
+                operationsByMachine[m * pb.numJobs + i] = pb.operation(tasks[i]);
+                positionOnMachine[pb.operation(tasks[i])] = i;
+            }
 
             // indicate that all tasks have been initialized for machine m
             nextFreeSlot[m] = instance.numJobs;
         }
     }
 
+    /** Operation at the given index of the given machine, -1 if the slot is empty. */
+    int operationOfMachine(int machine, int index) {
+        return operationsByMachine[machine * instance.numJobs + index];
+    }
+
+    /** Task at the given index of the given machine, null if the slot is empty. */
+    public Task getTaskOfMachine(int machine, int index) {
+        int op = operationOfMachine(machine, index);
+        if(op == -1)
+            return null;
+        return instance.task(op);
+    }
+
+    /** Index of the given task on its machine, -1 if it has not been put on it. */
+    public int positionOnMachine(Task task) {
+        return positionOnMachine[instance.operation(task)];
+    }
+
+    /** Index of the given operation on its machine, -1 if it has not been put on it. */
+    int positionOf(int op) {
+        return positionOnMachine[op];
+    }
+
+    /** Puts the given task at the given index of the given machine. */
+    public void setTaskOfMachine(int machine, int index, Task task) {
+        int slot = machine * instance.numJobs + index;
+        int previous = operationsByMachine[slot];
+        if(previous != -1 && positionOnMachine[previous] == index)
+            positionOnMachine[previous] = -1;
+        int op = instance.operation(task);
+        operationsByMachine[slot] = op;
+        positionOnMachine[op] = index;
+    }
+
+    /** Puts the given task in the first free slot of the given machine. */
+    public void addTaskToMachine(int machine, Task task) {
+        setTaskOfMachine(machine, nextFreeSlot[machine], task);
+        nextFreeSlot[machine]++;
+    }
+
+    /** Exchanges the tasks at index i1 and i2 of the given machine. */
+    public void swapTasks(int machine, int i1, int i2) {
+        int first = machine * instance.numJobs;
+        int op1 = operationsByMachine[first + i1];
+        int op2 = operationsByMachine[first + i2];
+        operationsByMachine[first + i1] = op2;
+        operationsByMachine[first + i2] = op1;
+        if(op2 != -1)
+            positionOnMachine[op2] = i1;
+        if(op1 != -1)
+            positionOnMachine[op1] = i2;
+    }
+
     @Override
     public Schedule toSchedule() {
-        int[][] startTimes = new int[instance.numJobs][instance.numTasks];
-
-        //Next free time for a machine
-        int[] timesMachineFree = new int[instance.numMachines];
-        //Number of Task done by a machine
-        int[] numberTaskByMachine = new int[instance.numMachines];
-
-        //Next task to schedule by job
-        int[] jobNextTask = new int[instance.numJobs];
-
-        for(int i=0;i<instance.numTasks*instance.numJobs;i++) {
-            boolean foundExecTask =false;
-            int m=0;
-            while (!foundExecTask && m<instance.numMachines ){
-                if (numberTaskByMachine[m]<instance.numJobs) {
-                    //Read the first task not scheduled on a machine
-                    Task currentTask = tasksByMachine[m][numberTaskByMachine[m]];
-
-                    //Check if the predecessors are already scheduled
-                    if (currentTask.task == jobNextTask[currentTask.job]) {
-                        foundExecTask = true;
-
-                        //Find the earliest time to execute the task
-                        int execTime = currentTask.task == 0 ? timesMachineFree[m] : Integer.max(timesMachineFree[m], startTimes[currentTask.job][currentTask.task - 1] + instance.duration(currentTask.job, currentTask.task-1));
-                        startTimes[currentTask.job][currentTask.task] = execTime;
-
-                        //Update arrays
-                        numberTaskByMachine[m]++;
-                        timesMachineFree[m] = execTime + instance.duration(currentTask.job, currentTask.task);
-                        jobNextTask[currentTask.job]++;
-                    }
-
-                }
-                //If task not executable, check the next machine
-                m++;
-            }
-        }
+        if(graph == null)
+            graph = new DisjunctiveGraph(instance);
 
-        // we exited the loop : all tasks have been scheduled successfully
-        return new Schedule(instance, startTimes);
+        if(graph.evaluate(this) < 0)
+            throw new RuntimeException("Resource order contains a cycle, no schedule can be built from it");
+
+        return graph.toSchedule();
+    }
+
+    /** Removes all tasks from the machines, the order is then the same as a newly created one. */
+    public void clear() {
+        Arrays.fill(operationsByMachine, -1);
+        Arrays.fill(positionOnMachine, -1);
+        Arrays.fill(nextFreeSlot, 0);
     }
 
     /** Creates an exact copy of this resource order. */
     public ResourceOrder copy() {
-        return new ResourceOrder(this.toSchedule());
+        ResourceOrder copy = new ResourceOrder(instance);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /** Overwrites this resource order with the content of another one of the same instance. */
+    public void copyFrom(ResourceOrder other) {
+        System.arraycopy(other.operationsByMachine, 0, operationsByMachine, 0, operationsByMachine.length);
+        System.arraycopy(other.positionOnMachine, 0, positionOnMachine, 0, positionOnMachine.length);
+        System.arraycopy(other.nextFreeSlot, 0, nextFreeSlot, 0, nextFreeSlot.length);
+    }
+
+    /** Two resource orders are equal if they have the same tasks at the same index on every machine. */
+    @Override
+    public boolean equals(Object o) {
+        if(this == o)
+            return true;
+        if(!(o instanceof ResourceOrder))
+            return false;
+        ResourceOrder other = (ResourceOrder) o;
+        return instance == other.instance && Arrays.equals(operationsByMachine, other.operationsByMachine);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(operationsByMachine);
     }
 
     @Override
@@ -111,7 +178,7 @@ public class ResourceOrder extends Encoding {
             s.append("Machine ").append(m).append(" : ");
             for(int j=0; j<instance.numJobs; j++)
             {
-                s.append(tasksByMachine[m][j]).append(" ; ");
+                s.append(getTaskOfMachine(m, j)).append(" ; ");
             }
             s.append("\n");
         }
@@ -119,4 +186,4 @@ public class ResourceOrder extends Encoding {
         return s.toString();
     }
 
-}
\ No newline at end of file
+}
@@ -2,205 +2,227 @@ package jobshop.encodings;
 
 import jobshop.Instance;
 import jobshop.Result;
+import jobshop.SearchStatistics;
 import jobshop.Solver;
 import jobshop.solvers.DescentSolver;
 import jobshop.solvers.GreedySolverEST_SPT;
+import jobshop.solvers.Nowicki;
+import jobshop.solvers.Nowicki.Swap;
+import jobshop.solvers.SwapEvaluator;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class TabooSolver  implements Solver {
 
-    private int maxIter;
-    private int dureeTaboo;
+    /** Number of iterations between two checks of the deadline */
+    private static final int DEADLINE_CHECK_PERIOD = 10;
 
-    public TabooSolver(int maxIter, int dureeTaboo){
+    /** Maximum number of iterations, no limit if 0 or less */
+    private final int maxIter;
+    private final int dureeTaboo;
+
+    /** Number of threads evaluating the neighbors of each iteration */
+    private final int parallelism;
+
+    /** Taboo search stopping after maxIter iterations or at the deadline, whichever comes first,
+     * the neighbors of each iteration being evaluated on the given number of threads. */
+    public TabooSolver(int maxIter, int dureeTaboo, int parallelism){
         this.dureeTaboo=dureeTaboo;
         this.maxIter=maxIter;
-    }
-    /** A block represents a subsequence of the critical path such that all tasks in it execute on the same machine.
-     * This class identifies a block in a ResourceOrder representation.
-     *
-     * Consider the solution in ResourceOrder representation
-     * machine 0 : (0,1) (1,2) (2,2)
-     * machine 1 : (0,2) (2,1) (1,1)
-     * machine 2 : ...
-     *
-     * The block with : machine = 1, firstTask= 0 and lastTask = 1
-     * Represent the task sequence : [(0,2) (2,1)]
-     *
-     * */
-    static class Block {
-        /** machine on which the block is identified */
-        final int machine;
-        /** index of the first task of the block */
-        final int firstTask;
-        /** index of the last task of the block */
-        final int lastTask;
-
-        Block(int machine, int firstTask, int lastTask) {
-            this.machine = machine;
-            this.firstTask = firstTask;
-            this.lastTask = lastTask;
-        }
+        this.parallelism=parallelism;
     }
 
-    /**
-     * Represents a swap of two tasks on the same machine in a ResourceOrder encoding.
-     *
-     * Consider the solution in ResourceOrder representation
-     * machine 0 : (0,1) (1,2) (2,2)
-     * machine 1 : (0,2) (2,1) (1,1)
-     * machine 2 : ...
-     *
-     * The swam with : machine = 1, t1= 0 and t2 = 1
-     * Represent inversion of the two tasks : (0,2) and (2,1)
-     * Applying this swap on the above resource order should result in the following one :
-     * machine 0 : (0,1) (1,2) (2,2)
-     * machine 1 : (2,1) (0,2) (1,1)
-     * machine 2 : ...
-     */
-    static class Swap {
-        // machine on which to perform the swap
-        final int machine;
-        // index of one task to be swapped
-        final int t1;
-        // index of the other task to be swapped
-        final int t2;
-
-        Swap(int machine, int t1, int t2) {
-            this.machine = machine;
-            this.t1 = t1;
-            this.t2 = t2;
-        }
+    /** Taboo search stopping after maxIter iterations or at the deadline, whichever comes first. */
+    public TabooSolver(int maxIter, int dureeTaboo){
+        this(maxIter, dureeTaboo, 1);
+    }
 
-        /** Apply this swap on the given resource order, transforming it into a new solution. */
-        public void applyOn(ResourceOrder order) {
-            Task taskToSwap = order.tasksByMachine[machine][t1];
-            order.tasksByMachine[machine][t1] = order.tasksByMachine[machine][t2];
-            order.tasksByMachine[machine][t2] = taskToSwap;
-        }
+    /** Taboo search running until the deadline. */
+    public TabooSolver(int dureeTaboo){
+        this(0, dureeTaboo);
     }
 
     @Override
     public Result solve(Instance instance, long deadline) {
+        SearchStatistics statistics = new SearchStatistics();
+        long deadlineNanos = statistics.deadlineNanos(deadline);
+
         //Initialisation
         Result sInit = new GreedySolverEST_SPT().solve(instance,deadline);
-        ResourceOrder sStar = new ResourceOrder(sInit.schedule);
-        ResourceOrder s = new ResourceOrder(sInit.schedule);
-        List<List<Task>> sTaboo = new ArrayList<>();
-        sTaboo.add(s.toSchedule().criticalPath());
-        int k =0;
+        Walk walk = new Walk(instance, new ResourceOrder(sInit.schedule), dureeTaboo, parallelism);
+        statistics.improved(walk.bestMakespan());
+
         boolean noNeighbors=false;
-        while (k<maxIter && !noNeighbors){
+        boolean timeout=false;
+        try {
+            while ((maxIter<=0 || walk.iterations()<maxIter) && !noNeighbors && !timeout){
+                int previousBest = walk.bestMakespan();
+                noNeighbors = !walk.iterate();
+                if (walk.bestMakespan() < previousBest){
+                    statistics.improved(walk.bestMakespan());
+                }
+
+                //Check the deadline from time to time
+                if (walk.iterations() % DEADLINE_CHECK_PERIOD == 0 && SearchStatistics.isPassed(deadlineNanos)){
+                    timeout = true;
+                }
+            }
+        } finally {
+            walk.shutdown();
+        }
+
+        statistics.iterations = walk.iterations();
+        statistics.evaluations = walk.evaluations();
+        statistics.neighbors = walk.neighbors();
+        statistics.stop();
+        Result.ExitCause cause = timeout ? Result.ExitCause.Timeout : Result.ExitCause.Blocked;
+        return new Result(instance,walk.best().toSchedule(),cause,statistics);
+    }
+
+    /** A taboo search moving one iteration at a time, so that it can be driven by other solvers.
+     * A walk holds its own graph and buffers and must not be shared between threads. */
+    public static class Walk {
+        private final Instance instance;
+        private int dureeTaboo;
+        private final int parallelism;
+
+        //Current solution, evaluated by the graph
+        private final ResourceOrder s;
+        private final DisjunctiveGraph graph;
+        private final Nowicki neighborhood;
+        private SwapEvaluator evaluator;
+
+        //Best solution found by the walk
+        private ResourceOrder sStar;
+        private int bestMakespan;
+
+        //Taboo memory on the arcs of the machines: for each machine m and jobs a and b,
+        //sTaboo[(m * numJobs + a) * numJobs + b] is the iteration until which putting the task of job a
+        //directly before the one of job b on machine m is taboo
+        private final int[] sTaboo;
+        private int k = 0;
+
+        //Neighbors generated and evaluated by the evaluators discarded at the restarts
+        private long neighbors = 0;
+        private long evaluations = 0;
+
+        /** Starts a walk from the given solution, which is not modified. */
+        public Walk(Instance instance, ResourceOrder start, int dureeTaboo, int parallelism) {
+            this.instance = instance;
+            this.dureeTaboo = dureeTaboo;
+            this.parallelism = parallelism;
+            this.s = start.copy();
+            this.sStar = start.copy();
+            this.graph = new DisjunctiveGraph(instance);
+            this.neighborhood = new Nowicki(instance);
+            this.sTaboo = new int[instance.numMachines * instance.numJobs * instance.numJobs];
+            this.bestMakespan = graph.evaluate(s);
+            this.evaluator = new SwapEvaluator(graph, parallelism);
+        }
+
+        /** Moves to the best non taboo neighbor of the current solution. If all neighbors are taboo and none
+         * improves the best solution, moves to the one whose taboo status expires first (Nowicki-Smutnicki).
+         * @return false if the current solution has no neighbor, the walk being blocked. */
+        public boolean iterate() {
             k++;
 
             //Find neighbors
-            List<Swap> currentNeightbors = new ArrayList<>();
-            for (Block currentBlock : blocksOfCriticalPath(s)){
-                currentNeightbors.addAll(neighbors(currentBlock));
+            List<Swap> currentNeightbors = neighborhood.allNeighbors(graph);
+            if (currentNeightbors.isEmpty()) {
+                return false;
             }
 
-            //Find best neighbour
-            int bestScore = Integer.MAX_VALUE;
-            ResourceOrder sPrime = null;
-            for (Swap currentSwap : currentNeightbors){
-                ResourceOrder possibleState = s.copy();
-                currentSwap.applyOn(possibleState);
-                int score = possibleState.toSchedule().makespan();
-                if (score < bestScore && !sTaboo.contains(possibleState.toSchedule().criticalPath())){
-                    sPrime = possibleState;
-                    bestScore = score;
+            //A taboo move may only be chosen if it improves the best solution (aspiration)
+            int[] limits = evaluator.limits(currentNeightbors.size());
+            int oldestIndex = -1;
+            int oldestExpiry = Integer.MAX_VALUE;
+            for (int i=0 ; i<currentNeightbors.size() ; i++){
+                Swap currentSwap = currentNeightbors.get(i);
+                int expiry = sTaboo[tabooIndex(instance, s, currentSwap.machine, currentSwap.t2, currentSwap.t1)];
+                boolean taboo = expiry > k;
+                limits[i] = taboo ? bestMakespan : Integer.MAX_VALUE;
+                if (taboo && expiry < oldestExpiry) {
+                    oldestExpiry = expiry;
+                    oldestIndex = i;
                 }
             }
 
-            //Add this neighbour to Taboo
-            if (sPrime!=null) {
-                if (sTaboo.size() == dureeTaboo) {
-                    sTaboo.remove(sTaboo.get(0));
-                }
-                sTaboo.add(sPrime.toSchedule().criticalPath());
-                s = sPrime;
+            //Find best neighbour, or the one that stops being taboo first if all of them are forbidden
+            int bestIndex = evaluator.best(currentNeightbors, limits);
+            if (bestIndex == -1) {
+                bestIndex = oldestIndex;
             }
-            else{
-                noNeighbors=true;
+            if (bestIndex == -1) {
+                return false;
             }
 
+            //Move to this neighbour and forbid to swap back its tasks
+            Swap bestSwap = currentNeightbors.get(bestIndex);
+            sTaboo[tabooIndex(instance, s, bestSwap.machine, bestSwap.t1, bestSwap.t2)] = k + dureeTaboo;
+            evaluator.commit(bestSwap);
 
             //Compare with best solution
-            if (bestScore < sStar.toSchedule().makespan()){
-
-                sStar = sPrime;
+            if (graph.makespan() < bestMakespan){
+                bestMakespan = graph.makespan();
+                sStar = s.copy();
             }
+            return true;
         }
 
-        return new Result(instance,sStar.toSchedule(),Result.ExitCause.Blocked);
+        /** Continues the walk from the given solution, which is not modified, with an empty taboo memory
+         * and the given taboo tenure. The best solution of the walk is kept unless the new one is better. */
+        public void restart(ResourceOrder start, int dureeTaboo) {
+            this.dureeTaboo = dureeTaboo;
+            neighbors += evaluator.neighbors();
+            evaluations += evaluator.evaluations();
+            evaluator.shutdown();
+            s.copyFrom(start);
+            graph.evaluate(s);
+            evaluator = new SwapEvaluator(graph, parallelism);
+            Arrays.fill(sTaboo, 0);
+            if (graph.makespan() < bestMakespan){
+                bestMakespan = graph.makespan();
+                sStar = s.copy();
+            }
+        }
 
+        /** Number of iterations done by the walk */
+        public int iterations() {
+            return k;
+        }
 
-    }
+        /** Number of neighbors generated by the walk */
+        public long neighbors() {
+            return neighbors + evaluator.neighbors();
+        }
 
-    /** Returns a list of all blocks of the critical path. */
-    List<Block> blocksOfCriticalPath(ResourceOrder order) {
-        List<Task> criticalPath = order.toSchedule().criticalPath();
-        List<Block> result = new ArrayList<>();
+        /** Number of neighbors whose makespan has been computed by the walk */
+        public long evaluations() {
+            return evaluations + evaluator.evaluations();
+        }
 
-        int machine = -1;
-        int indexStart = 0;
-        int indexEnd = 0;
+        /** Best solution found by the walk, it must not be modified. */
+        public ResourceOrder best() {
+            return sStar;
+        }
 
-        for (Task currentTask : criticalPath){
-            int currentIndex = criticalPath.indexOf(currentTask);
-            //Add the task to the current block if on the same machine
-            if (order.instance.machine(currentTask)==machine){
-                indexEnd = currentIndex;
-            }
-            else {
-                //If the block is composed of 2+ tasks, add it to the result
-                int length = indexEnd - indexStart;
-                if (length > 0){
-                    int indexMachineStart=0;
-                    int indexMachineEnd=0;
-                    for (int i=0 ; i<order.instance.numJobs ; i++){
-                        if (order.tasksByMachine[machine][i].equals(criticalPath.get(indexStart))){
-                            indexMachineStart = i;
-                        }
-                        else if (order.tasksByMachine[machine][i].equals(criticalPath.get(indexEnd))){
-                            indexMachineEnd = i;
-                        }
-                    }
-                    result.add(new Block(machine,indexMachineStart,indexMachineEnd));
-                }
-                //Initiate new block
-                machine = order.instance.machine(currentTask);
-                indexStart = currentIndex;
-                indexEnd = currentIndex;
-            }
+        public int bestMakespan() {
+            return bestMakespan;
         }
-        //If the last block is composed of 2+ tasks, add it to the result
-        int length = indexEnd - indexStart;
-        if (length > 0){
-            int indexMachineStart=0;
-            int indexMachineEnd=0;
-            for (int i=0 ; i<order.instance.numJobs ; i++){
-                if (order.tasksByMachine[machine][i].equals(criticalPath.get(indexStart))){
-                    indexMachineStart = i;
-                }
-                else if (order.tasksByMachine[machine][i].equals(criticalPath.get(indexEnd))){
-                    indexMachineEnd = i;
-                }
-            }
-            result.add(new Block(machine,indexMachineStart,indexMachineEnd));
+
+        /** Releases the threads used to evaluate the neighbors. */
+        public void shutdown() {
+            evaluator.shutdown();
         }
-        return  result;
     }
 
-    /** For a given block, return the possible swaps for the Nowicki and Smutnicki neighborhood */
-    List<Swap> neighbors(Block block) {
-        List<Swap> result = new ArrayList<>();
-        result.add(new Swap(block.machine,block.firstTask,block.firstTask+1));
-        if ((block.lastTask - block.firstTask)>1){
-            result.add(new Swap(block.machine,block.lastTask - 1,block.lastTask));
-        }
-        return result;
+    /** Index in the taboo memory of the arc between the tasks at index `before` and `after` of the given machine,
+     * the task at index `before` being executed first. */
+    private static int tabooIndex(Instance instance, ResourceOrder order, int machine, int before, int after) {
+        int jobBefore = order.getTaskOfMachine(machine, before).job;
+        int jobAfter = order.getTaskOfMachine(machine, after).job;
+        return (machine * instance.numJobs + jobBefore) * instance.numJobs + jobAfter;
     }
+
 }
@@ -1,10 +1,11 @@
 package jobshop.encodings;
 
-import java.util.Objects;
-
 /** Represents a task (job,task) of an jobshop problem.
  *
  * Example : (2, 3) repesents the fourth task of the third job. (remeber that we tart counting at 0)
+ *
+ * All tasks of an instance are available from Instance.task(job, task) which should be preferred
+ * to creating new ones: no allocation is needed and two equal tasks are then the same object.
  * */
 public final class Task {
 
@@ -21,7 +22,7 @@ public final class Task {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof Task)) return false;
         Task task1 = (Task) o;
         return job == task1.job &&
                 task == task1.task;
@@ -29,7 +30,7 @@ public final class Task {
 
     @Override
     public int hashCode() {
-        return Objects.hash(job, task);
+        return 31 * job + task;
     }
 
     @Override
@@ -0,0 +1,109 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.SearchStatistics;
+import jobshop.Solver;
+import jobshop.encodings.TabooSolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Taboo searches run concurrently until the deadline and sharing their best solutions.
+ *
+ * Each thread runs a taboo walk (see TabooSolver.Walk) and regularly offers its best solution to a bounded
+ * elite pool. A walk that has not improved its best solution for a given number of iterations starts again
+ * from a solution of the pool drawn at random, with a new taboo tenure drawn at random to diversify
+ * the walks. The pool is lock-free so the walks never wait on each other.
+ */
+public class CooperativeTabooSolver implements Solver {
+
+    /** Number of iterations between two publications of the best solution of a walk and checks of the deadline */
+    private static final int PUBLISH_PERIOD = 10;
+
+    /** Number of walks run concurrently */
+    private final int walkers;
+    /** Minimal taboo tenure, the tenure of a walk is drawn between dureeTaboo and 2 * dureeTaboo */
+    private final int dureeTaboo;
+    /** Number of iterations without improvement after which a walk restarts from an elite solution */
+    private final int stagnation;
+
+    public CooperativeTabooSolver(int walkers, int dureeTaboo, int stagnation){
+        this.walkers = walkers;
+        this.dureeTaboo = dureeTaboo;
+        this.stagnation = stagnation;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        SearchStatistics statistics = new SearchStatistics();
+        long deadlineNanos = statistics.deadlineNanos(deadline);
+
+        ElitePool elites = new ElitePool(Math.max(4, walkers));
+
+        ExecutorService pool = Executors.newFixedThreadPool(walkers);
+        try {
+            List<Future<SearchStatistics>> walks = new ArrayList<>();
+            for (int w=0 ; w<walkers ; w++){
+                final int walker = w;
+                walks.add(pool.submit(() -> {
+                    Random generator = new Random(walker);
+                    SearchStatistics walkStatistics = new SearchStatistics();
+                    TabooSolver.Walk walk = new TabooSolver.Walk(instance,
+                            MultiStartDescentSolver.construct(instance, walker, generator, deadline),
+                            dureeTaboo + (walker == 0 ? 0 : generator.nextInt(dureeTaboo + 1)), 1);
+                    elites.offer(walk.best(), walk.bestMakespan());
+                    walkStatistics.improved(walk.bestMakespan());
+
+                    int published = walk.bestMakespan();
+                    int lastImprovement = 0;
+                    boolean blocked = false;
+                    try {
+                        while (!SearchStatistics.isPassed(deadlineNanos)){
+                            for (int i = 0 ; i < PUBLISH_PERIOD && !blocked ; i++){
+                                blocked = !walk.iterate();
+                            }
+
+                            //Publish the best solution of the walk if it improved
+                            if (walk.bestMakespan() < published){
+                                published = walk.bestMakespan();
+                                lastImprovement = walk.iterations();
+                                elites.offer(walk.best(), published);
+                                walkStatistics.improved(published);
+                            }
+
+                            //Restart from an elite solution if the walk stagnates
+                            if (blocked || walk.iterations() - lastImprovement >= stagnation){
+                                walk.restart(elites.sample(generator).order,
+                                        dureeTaboo + generator.nextInt(dureeTaboo + 1));
+                                lastImprovement = walk.iterations();
+                                blocked = false;
+                                walkStatistics.restarts++;
+                            }
+                        }
+                    } finally {
+                        walkStatistics.iterations = walk.iterations();
+                        walkStatistics.evaluations = walk.evaluations();
+                        walkStatistics.neighbors = walk.neighbors();
+                        walk.shutdown();
+                    }
+                    return walkStatistics;
+                }));
+            }
+            for (Future<SearchStatistics> walk : walks){
+                statistics.add(walk.get());
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            pool.shutdown();
+        }
+
+        statistics.stop();
+        return new Result(instance, elites.best().order.toSchedule(), Result.ExitCause.Timeout, statistics);
+    }
+}
@@ -2,181 +2,84 @@ package jobshop.solvers;
 
 import jobshop.Instance;
 import jobshop.Result;
+import jobshop.SearchStatistics;
 import jobshop.Solver;
+import jobshop.encodings.DisjunctiveGraph;
 import jobshop.encodings.ResourceOrder;
-import jobshop.encodings.Task;
+import jobshop.solvers.Nowicki.Swap;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class DescentSolver implements Solver {
 
-    /** A block represents a subsequence of the critical path such that all tasks in it execute on the same machine.
-     * This class identifies a block in a ResourceOrder representation.
-     *
-     * Consider the solution in ResourceOrder representation
-     * machine 0 : (0,1) (1,2) (2,2)
-     * machine 1 : (0,2) (2,1) (1,1)
-     * machine 2 : ...
-     *
-     * The block with : machine = 1, firstTask= 0 and lastTask = 1
-     * Represent the task sequence : [(0,2) (2,1)]
-     *
-     * */
-    static class Block {
-        /** machine on which the block is identified */
-        final int machine;
-        /** index of the first task of the block */
-        final int firstTask;
-        /** index of the last task of the block */
-        final int lastTask;
+    /** Number of threads evaluating the neighbors of each iteration */
+    private final int parallelism;
 
-        Block(int machine, int firstTask, int lastTask) {
-            this.machine = machine;
-            this.firstTask = firstTask;
-            this.lastTask = lastTask;
-        }
+    public DescentSolver(){
+        this(1);
     }
 
-    /**
-     * Represents a swap of two tasks on the same machine in a ResourceOrder encoding.
-     *
-     * Consider the solution in ResourceOrder representation
-     * machine 0 : (0,1) (1,2) (2,2)
-     * machine 1 : (0,2) (2,1) (1,1)
-     * machine 2 : ...
-     *
-     * The swam with : machine = 1, t1= 0 and t2 = 1
-     * Represent inversion of the two tasks : (0,2) and (2,1)
-     * Applying this swap on the above resource order should result in the following one :
-     * machine 0 : (0,1) (1,2) (2,2)
-     * machine 1 : (2,1) (0,2) (1,1)
-     * machine 2 : ...
-     */
-    static class Swap {
-        // machine on which to perform the swap
-        final int machine;
-        // index of one task to be swapped
-        final int t1;
-        // index of the other task to be swapped
-        final int t2;
-
-        Swap(int machine, int t1, int t2) {
-            this.machine = machine;
-            this.t1 = t1;
-            this.t2 = t2;
-        }
-
-        /** Apply this swap on the given resource order, transforming it into a new solution. */
-        public void applyOn(ResourceOrder order) {
-            Task taskToSwap = order.tasksByMachine[machine][t1];
-            order.tasksByMachine[machine][t1] = order.tasksByMachine[machine][t2];
-            order.tasksByMachine[machine][t2] = taskToSwap;
-        }
+    /** Descent evaluating the neighbors of each iteration on the given number of threads. */
+    public DescentSolver(int parallelism){
+        this.parallelism = parallelism;
     }
 
-
     @Override
     public Result solve(Instance instance, long deadline) {
+        SearchStatistics statistics = new SearchStatistics();
         Result sInit = new GreedySolverEST_SPT().solve(instance,deadline);
         ResourceOrder sStar = new ResourceOrder(sInit.schedule);
 
-        boolean improve = true;
-        while (improve){
-            //Find neighbors
-            List<Swap> currentNeightbors = new ArrayList<>();
-            for (Block currentBlock : blocksOfCriticalPath(sStar)){
-                currentNeightbors.addAll(neighbors(currentBlock));
-            }
-
-            //Find best neighbour
-            int bestScore = Integer.MAX_VALUE;
-            ResourceOrder sPrime = null;
-            for (Swap currentSwap : currentNeightbors){
-                ResourceOrder possibleState = sStar.copy();
-                currentSwap.applyOn(possibleState);
-                int score = possibleState.toSchedule().makespan();
-                if (score < bestScore){
-                    sPrime = possibleState;
-                    bestScore = score;
-                }
-            }
-
-            //Compare with current state
-            if (bestScore < sStar.toSchedule().makespan()){
-
-                sStar = sPrime;
-            }
-            else {
-                improve = false;
-            }
+        //Neighbors are evaluated incrementally on the graph of the current state
+        DisjunctiveGraph graph = new DisjunctiveGraph(instance);
+        Nowicki neighborhood = new Nowicki(instance);
+        statistics.improved(graph.evaluate(sStar));
+        SwapEvaluator evaluator = new SwapEvaluator(graph, parallelism);
+
+        try {
+            //The descent is not bounded by the deadline, it stops at a local optimum
+            descend(graph, neighborhood, evaluator, statistics.deadlineNanos(Long.MAX_VALUE), statistics);
+        } finally {
+            evaluator.shutdown();
         }
-        return new Result(instance,sStar.toSchedule(),Result.ExitCause.Blocked);
+        statistics.stop();
+        return new Result(instance,graph.toSchedule(),Result.ExitCause.Blocked,statistics);
     }
 
-    /** Returns a list of all blocks of the critical path. */
-    List<Block> blocksOfCriticalPath(ResourceOrder order) {
-        List<Task> criticalPath = order.toSchedule().criticalPath();
-        List<Block> result = new ArrayList<>();
+    /** Moves the order evaluated by the graph to its best neighbor until no neighbor improves it
+     * or until the deadline, given by SearchStatistics.deadlineNanos, is passed.
+     * The evaluator must be bound to the same graph. The iterations, evaluations and improvements of the descent
+     * are added to the given statistics.
+     * @return true if a local optimum has been reached, false if the deadline stopped the descent.
+     */
+    public static boolean descend(DisjunctiveGraph graph, Nowicki neighborhood, SwapEvaluator evaluator,
+                                  long deadlineNanos, SearchStatistics statistics) {
+        long neighbors = evaluator.neighbors();
+        long evaluations = evaluator.evaluations();
+        boolean optimum = false;
+        while (!SearchStatistics.isPassed(deadlineNanos)){
+            statistics.iterations++;
 
-        int machine = -1;
-        int indexStart = 0;
-        int indexEnd = 0;
+            //Find neighbors
+            List<Swap> currentNeightbors = neighborhood.allNeighbors(graph);
 
-        for (Task currentTask : criticalPath){
-            int currentIndex = criticalPath.indexOf(currentTask);
-            //Add the task to the current block if on the same machine
-            if (order.instance.machine(currentTask)==machine){
-                indexEnd = currentIndex;
-            }
-            else {
-                //If the block is composed of 2+ tasks, add it to the result
-                int length = indexEnd - indexStart;
-                if (length > 0){
-                    int indexMachineStart=0;
-                    int indexMachineEnd=0;
-                    for (int i=0 ; i<order.instance.numJobs ; i++){
-                        if (order.tasksByMachine[machine][i].equals(criticalPath.get(indexStart))){
-                            indexMachineStart = i;
-                        }
-                        else if (order.tasksByMachine[machine][i].equals(criticalPath.get(indexEnd))){
-                            indexMachineEnd = i;
-                        }
-                    }
-                    result.add(new Block(machine,indexMachineStart,indexMachineEnd));
-                }
-                //Initiate new block
-                machine = order.instance.machine(currentTask);
-                indexStart = currentIndex;
-                indexEnd = currentIndex;
-            }
-        }
-        //If the last block is composed of 2+ tasks, add it to the result
-        int length = indexEnd - indexStart;
-        if (length > 0){
-            int indexMachineStart=0;
-            int indexMachineEnd=0;
-            for (int i=0 ; i<order.instance.numJobs ; i++){
-                if (order.tasksByMachine[machine][i].equals(criticalPath.get(indexStart))){
-                    indexMachineStart = i;
-                }
-                else if (order.tasksByMachine[machine][i].equals(criticalPath.get(indexEnd))){
-                    indexMachineEnd = i;
-                }
-            }
-            result.add(new Block(machine,indexMachineStart,indexMachineEnd));
-        }
-        return  result;
-    }
+            //Find best neighbour, only the ones that improve the current state may be chosen
+            int[] limits = evaluator.limits(currentNeightbors.size());
+            Arrays.fill(limits, 0, currentNeightbors.size(), graph.makespan());
+            int bestIndex = evaluator.best(currentNeightbors, limits);
 
-    /** For a given block, return the possible swaps for the Nowicki and Smutnicki neighborhood */
-    List<Swap> neighbors(Block block) {
-        List<Swap> result = new ArrayList<>();
-        result.add(new Swap(block.machine,block.firstTask,block.firstTask+1));
-        if ((block.lastTask - block.firstTask)>1){
-            result.add(new Swap(block.machine,block.lastTask - 1,block.lastTask));
+            //Move to the best neighbour if it improves the current state
+            if (bestIndex == -1){
+                optimum = true;
+                break;
+            }
+            evaluator.commit(currentNeightbors.get(bestIndex));
+            statistics.improved(graph.makespan());
         }
-        return result;
+        statistics.neighbors += evaluator.neighbors() - neighbors;
+        statistics.evaluations += evaluator.evaluations() - evaluations;
+        return optimum;
     }
 
 }
@@ -0,0 +1,34 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.encodings.ResourceOrder;
+
+/** Greedy solver dispatching the operations with a priority rule (see Dispatcher).
+ *
+ * Rules are composed with PriorityRule.then, for instance
+ * new DispatchSolver(Dispatcher.Filter.EST, PriorityRule.MWKR.then(PriorityRule.SPT)).
+ */
+public class DispatchSolver implements Solver {
+
+    /** Restriction of the operations considered at each step */
+    public final Dispatcher.Filter filter;
+    /** Priority of the operations */
+    public final PriorityRule rule;
+
+    public DispatchSolver(Dispatcher.Filter filter, PriorityRule rule) {
+        this.filter = filter;
+        this.rule = rule;
+    }
+
+    public DispatchSolver(PriorityRule rule) {
+        this(Dispatcher.Filter.NONE, rule);
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        ResourceOrder sol = new Dispatcher(instance).dispatch(rule, filter);
+        return new Result(instance,sol.toSchedule(),Result.ExitCause.Blocked);
+    }
+}
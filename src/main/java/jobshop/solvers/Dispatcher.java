@@ -0,0 +1,205 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.Arrays;
+
+/** Greedy construction of a resource order shared by the dispatch solvers.
+ *
+ * At each step, the ready operation with the smallest key is put at the end of its machine, the ready operations
+ * being the first unscheduled task of each job. The key of an operation is its priority (the smaller the better),
+ * preceded by its earliest start or completion time if the dispatch is restricted to the operations that can
+ * start or complete first (see Filter). A composed rule (see PriorityRule.then) gives one priority per level,
+ * compared lexicographically. Remaining ties are broken by job number.
+ *
+ * There is at most one ready operation per job, so they are kept in a binary heap of job numbers, their keys
+ * being stored in arrays indexed by job number: each step costs O(log numJobs) and no object is allocated
+ * apart from the resource order. With a filter, the start time of an operation can only grow as tasks are put
+ * on its machine: times stored in the heap are lower bounds that are updated lazily, when an operation reaches
+ * the top of the heap.
+ *
+ * A dispatcher holds buffers for an instance and must not be shared between threads.
+ */
+public class Dispatcher {
+
+    /** Restriction of the operations considered at each step of a dispatch. */
+    public enum Filter {
+        /** All ready operations are considered */
+        NONE,
+        /** Only the operations that can start first are considered (Earliest Start Time) */
+        EST,
+        /** Only the operations that can complete first are considered (Earliest Completion Time) */
+        ECT
+    }
+
+    private final Instance instance;
+
+    // end time of the last scheduled task of each job and each machine
+    private final int[] jobsTime;
+    private final int[] machinesTime;
+
+    // index of the next task to schedule in each job
+    private final int[] nextTask;
+
+    // binary heap of the jobs having a ready operation
+    private final int[] heap;
+    private int size;
+
+    // time given by the filter for the ready operation of each job, 0 without filter
+    private final int[] time;
+    // priorities of the ready operation of each job, levels consecutive priorities per job
+    private int[] priorities;
+    private int levels;
+
+    public Dispatcher(Instance instance) {
+        this.instance = instance;
+        jobsTime = new int[instance.numJobs];
+        machinesTime = new int[instance.numMachines];
+        nextTask = new int[instance.numJobs];
+        heap = new int[instance.numJobs];
+        time = new int[instance.numJobs];
+        priorities = new int[instance.numJobs];
+    }
+
+    /** Builds a resource order by dispatching the operations by increasing priority.
+     * @param rule priority of the operations, possibly composed of several levels.
+     * @param filter restriction of the operations considered at each step.
+     */
+    public ResourceOrder dispatch(PriorityRule rule, Filter filter) {
+        PriorityRule[] rules = rule.levels();
+        levels = rules.length;
+        if (priorities.length < levels * instance.numJobs){
+            priorities = new int[levels * instance.numJobs];
+        }
+        ResourceOrder sol = new ResourceOrder(instance);
+        Arrays.fill(jobsTime, 0);
+        Arrays.fill(machinesTime, 0);
+        Arrays.fill(nextTask, 0);
+        size = 0;
+
+        //Initialisation
+        for (int job = 0 ; job < instance.numJobs ; job++){
+            push(job, rules, filter);
+        }
+
+        //Loop
+        while (size > 0){
+            if (filter != Filter.NONE){
+                //Update the time of the top operation until it is exact, it is then the smallest one
+                while (true){
+                    int job = heap[0];
+                    int actual = filterTime(job, filter);
+                    if (actual == time[job]){
+                        break;
+                    }
+                    time[job] = actual;
+                    siftDown(0);
+                }
+            }
+            int job = pop();
+
+            //Put the task on the machine
+            int task = nextTask[job];
+            int machine = instance.machine(job, task);
+            sol.addTaskToMachine(machine, instance.task(job, task));
+            int end = startTime(job) + instance.duration(job, task);
+            jobsTime[job] = end;
+            machinesTime[machine] = end;
+
+            //The next task of the job becomes ready
+            nextTask[job]++;
+            if (nextTask[job] < instance.numTasks){
+                push(job, rules, filter);
+            }
+        }
+        return sol;
+    }
+
+    /** Earliest start time of the ready operation of the job. */
+    private int startTime(int job) {
+        return Math.max(jobsTime[job], machinesTime[instance.machine(job, nextTask[job])]);
+    }
+
+    /** Time ordering the ready operation of the job before its priorities. */
+    private int filterTime(int job, Filter filter) {
+        switch (filter){
+            case EST:
+                return startTime(job);
+            case ECT:
+                return startTime(job) + instance.duration(job, nextTask[job]);
+            default:
+                return 0;
+        }
+    }
+
+    /** Adds the ready operation of the job to the heap. */
+    private void push(int job, PriorityRule[] rules, Filter filter) {
+        int op = instance.operation(job, nextTask[job]);
+        for (int l = 0 ; l < levels ; l++){
+            priorities[job * levels + l] = rules[l].priority(instance, op, jobsTime[job]);
+        }
+        time[job] = filterTime(job, filter);
+        heap[size] = job;
+        size++;
+        siftUp(size - 1);
+    }
+
+    /** Removes the job at the top of the heap and returns it. */
+    private int pop() {
+        int top = heap[0];
+        size--;
+        if (size > 0){
+            heap[0] = heap[size];
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /** Whether the operation of job a comes before the one of job b. */
+    private boolean before(int a, int b) {
+        if (time[a] != time[b]){
+            return time[a] < time[b];
+        }
+        for (int l = 0 ; l < levels ; l++){
+            int pa = priorities[a * levels + l];
+            int pb = priorities[b * levels + l];
+            if (pa != pb){
+                return pa < pb;
+            }
+        }
+        return a < b;
+    }
+
+    private void siftUp(int index) {
+        int job = heap[index];
+        while (index > 0){
+            int parent = (index - 1) / 2;
+            if (!before(job, heap[parent])){
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = job;
+    }
+
+    private void siftDown(int index) {
+        int job = heap[index];
+        while (true){
+            int child = 2 * index + 1;
+            if (child >= size){
+                break;
+            }
+            if (child + 1 < size && before(heap[child + 1], heap[child])){
+                child++;
+            }
+            if (!before(heap[child], job)){
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = job;
+    }
+}
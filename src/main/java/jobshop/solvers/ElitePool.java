@@ -0,0 +1,92 @@
+package jobshop.solvers;
+
+import jobshop.encodings.ResourceOrder;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/** Bounded pool of the best solutions found by concurrent searches.
+ *
+ * The pool is lock-free: offering a solution replaces the worst one of the pool with a compare-and-set,
+ * so that threads never wait on each other. Solutions put in the pool are never modified.
+ */
+public class ElitePool {
+
+    /** A solution of the pool and its makespan. */
+    public static class Elite {
+        public final ResourceOrder order;
+        public final int makespan;
+
+        Elite(ResourceOrder order, int makespan) {
+            this.order = order;
+            this.makespan = makespan;
+        }
+    }
+
+    // slots of the pool, null while empty
+    private final AtomicReferenceArray<Elite> elites;
+
+    public ElitePool(int capacity) {
+        if(capacity < 1)
+            throw new RuntimeException("The capacity of the pool should be at least 1");
+        elites = new AtomicReferenceArray<>(capacity);
+    }
+
+    /** Adds a copy of the given solution to the pool if it is better than the worst one and not already in it.
+     * @return true if the solution was added. */
+    public boolean offer(ResourceOrder order, int makespan) {
+        Elite candidate = null;
+        while (true) {
+            //Find the slot of the worst solution, an empty slot being the worst
+            int worst = -1;
+            Elite worstElite = null;
+            for (int i = 0 ; i < elites.length() ; i++) {
+                Elite elite = elites.get(i);
+                if (elite == null) {
+                    worst = i;
+                    worstElite = null;
+                    break;
+                }
+                if (elite.makespan == makespan && elite.order.equals(order)) {
+                    return false;
+                }
+                if (worstElite == null || elite.makespan > worstElite.makespan) {
+                    worst = i;
+                    worstElite = elite;
+                }
+            }
+            if (worstElite != null && worstElite.makespan <= makespan) {
+                return false;
+            }
+
+            if (candidate == null)
+                candidate = new Elite(order.copy(), makespan);
+            if (elites.compareAndSet(worst, worstElite, candidate)) {
+                return true;
+            }
+            //Another thread modified this slot in the meantime, look again for the worst one
+        }
+    }
+
+    /** Returns a solution of the pool drawn at random, null if the pool is empty. */
+    public Elite sample(Random generator) {
+        int start = generator.nextInt(elites.length());
+        for (int i = 0 ; i < elites.length() ; i++) {
+            Elite elite = elites.get((start + i) % elites.length());
+            if (elite != null)
+                return elite;
+        }
+        return null;
+    }
+
+    /** Returns the best solution of the pool, null if the pool is empty. */
+    public Elite best() {
+        Elite best = null;
+        for (int i = 0 ; i < elites.length() ; i++) {
+            Elite elite = elites.get(i);
+            if (elite != null && (best == null || elite.makespan < best.makespan))
+                best = elite;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,178 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.Random;
+
+/** Giffler–Thompson construction of active schedules.
+ *
+ * At each step, the ready operation that can complete first is found, its completion time C and its machine M
+ * define the conflict set: the ready operations on M that can start before C, along with the operation completing
+ * first in case its duration is 0. One operation of the conflict set
+ * is put at the end of M, so that no operation could be moved earlier without delaying another one.
+ * The operation is the one with the smallest priority, or in randomized mode (GRASP), an operation drawn
+ * uniformly in the restricted candidate list: the operations of the conflict set whose priority is at most
+ * min + alpha * (max - min), so that alpha = 0 is the deterministic choice and alpha = 1 a uniform choice.
+ *
+ * A generator holds buffers for an instance, a construction allocates nothing once the generator has been
+ * used with the same rule. It must not be shared between threads.
+ */
+public class GifflerThompson {
+
+    private final Instance instance;
+
+    // end time of the last scheduled task of each job and each machine
+    private final int[] jobsTime;
+    private final int[] machinesTime;
+
+    // index of the next task to schedule in each job
+    private final int[] nextTask;
+
+    // jobs whose ready operation belongs to the conflict set
+    private final int[] conflicts;
+
+    // priorities of the ready operation of each job, levels consecutive priorities per job
+    private int[] priorities;
+    private int levels;
+
+    // rule of the last construction and the simple rules composing it
+    private PriorityRule rule;
+    private PriorityRule[] rules;
+
+    public GifflerThompson(Instance instance) {
+        this.instance = instance;
+        jobsTime = new int[instance.numJobs];
+        machinesTime = new int[instance.numMachines];
+        nextTask = new int[instance.numJobs];
+        conflicts = new int[instance.numJobs];
+        priorities = new int[instance.numJobs];
+    }
+
+    /** Builds an active schedule choosing the operation with the smallest priority in each conflict set.
+     * @param order overwritten with the resource order of the schedule.
+     * @return the makespan of the schedule.
+     */
+    public int build(ResourceOrder order, PriorityRule rule) {
+        return build(order, rule, null, 0);
+    }
+
+    /** Builds an active schedule choosing randomly in a restricted candidate list of each conflict set.
+     * @param order overwritten with the resource order of the schedule.
+     * @param rule priority of the operations, only its first level is used to build the candidate list.
+     * @param generator source of randomness, null for the deterministic choice.
+     * @param alpha size of the candidate list, between 0 (smallest priority only) and 1 (whole conflict set).
+     * @return the makespan of the schedule.
+     */
+    public int build(ResourceOrder order, PriorityRule rule, Random generator, double alpha) {
+        if (rule != this.rule){
+            this.rule = rule;
+            rules = rule.levels();
+            levels = rules.length;
+            if (priorities.length < levels * instance.numJobs){
+                priorities = new int[levels * instance.numJobs];
+            }
+        }
+        order.clear();
+        for (int j = 0 ; j < instance.numJobs ; j++){
+            jobsTime[j] = 0;
+            nextTask[j] = 0;
+            setPriorities(j);
+        }
+        for (int m = 0 ; m < instance.numMachines ; m++){
+            machinesTime[m] = 0;
+        }
+
+        int makespan = 0;
+        for (int step = 0 ; step < instance.numOperations() ; step++){
+            //Ready operation completing first, its machine is the one of the conflict
+            int completion = Integer.MAX_VALUE;
+            int first = -1;
+            for (int j = 0 ; j < instance.numJobs ; j++){
+                if (nextTask[j] < instance.numTasks){
+                    int end = startTime(j) + instance.duration(j, nextTask[j]);
+                    if (end < completion){
+                        completion = end;
+                        first = j;
+                    }
+                }
+            }
+            int machine = instance.machine(first, nextTask[first]);
+
+            //Conflict set: ready operations on the machine that can start before this completion, and the
+            //operation completing first itself, which starts at this completion if its duration is 0
+            int numConflicts = 0;
+            int lowest = Integer.MAX_VALUE;
+            int highest = Integer.MIN_VALUE;
+            for (int j = 0 ; j < instance.numJobs ; j++){
+                if (j == first || nextTask[j] < instance.numTasks && instance.machine(j, nextTask[j]) == machine
+                        && startTime(j) < completion){
+                    conflicts[numConflicts++] = j;
+                    lowest = Math.min(lowest, priorities[j * levels]);
+                    highest = Math.max(highest, priorities[j * levels]);
+                }
+            }
+
+            //Choose the operation to schedule
+            int job;
+            if (generator == null || alpha <= 0){
+                job = conflicts[0];
+                for (int i = 1 ; i < numConflicts ; i++){
+                    if (before(conflicts[i], job)){
+                        job = conflicts[i];
+                    }
+                }
+            } else {
+                //Restricted candidate list, kept at the beginning of the conflict set
+                long threshold = lowest + (long) (alpha * ((long) highest - lowest));
+                int candidates = 0;
+                for (int i = 0 ; i < numConflicts ; i++){
+                    if (priorities[conflicts[i] * levels] <= threshold){
+                        conflicts[candidates++] = conflicts[i];
+                    }
+                }
+                job = conflicts[generator.nextInt(candidates)];
+            }
+
+            //Put the task on the machine
+            int task = nextTask[job];
+            order.addTaskToMachine(machine, instance.task(job, task));
+            int end = startTime(job) + instance.duration(job, task);
+            jobsTime[job] = end;
+            machinesTime[machine] = end;
+            makespan = Math.max(makespan, end);
+
+            //The next task of the job becomes ready
+            nextTask[job]++;
+            if (nextTask[job] < instance.numTasks){
+                setPriorities(job);
+            }
+        }
+        return makespan;
+    }
+
+    /** Earliest start time of the ready operation of the job. */
+    private int startTime(int job) {
+        return Math.max(jobsTime[job], machinesTime[instance.machine(job, nextTask[job])]);
+    }
+
+    /** Computes the priorities of the ready operation of the job. */
+    private void setPriorities(int job) {
+        int op = instance.operation(job, nextTask[job]);
+        for (int l = 0 ; l < levels ; l++){
+            priorities[job * levels + l] = rules[l].priority(instance, op, jobsTime[job]);
+        }
+    }
+
+    /** Whether the operation of job a has a smaller priority than the one of job b, ties broken by job number. */
+    private boolean before(int a, int b) {
+        for (int l = 0 ; l < levels ; l++){
+            int pa = priorities[a * levels + l];
+            int pb = priorities[b * levels + l];
+            if (pa != pb){
+                return pa < pb;
+            }
+        }
+        return a < b;
+    }
+}
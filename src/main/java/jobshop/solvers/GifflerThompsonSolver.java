@@ -0,0 +1,24 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.encodings.ResourceOrder;
+
+/** Greedy solver building an active schedule with the Giffler–Thompson algorithm (see GifflerThompson). */
+public class GifflerThompsonSolver implements Solver {
+
+    /** Priority used to choose an operation in each conflict set */
+    public final PriorityRule rule;
+
+    public GifflerThompsonSolver(PriorityRule rule) {
+        this.rule = rule;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        ResourceOrder sol = new ResourceOrder(instance);
+        new GifflerThompson(instance).build(sol, rule);
+        return new Result(instance,sol.toSchedule(),Result.ExitCause.Blocked);
+    }
+}
@@ -0,0 +1,119 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.SearchStatistics;
+import jobshop.Solver;
+import jobshop.encodings.DisjunctiveGraph;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Greedy Randomized Adaptive Search Procedure run concurrently until the deadline.
+ *
+ * Each thread repeatedly builds an active schedule with a randomized Giffler–Thompson construction
+ * (see GifflerThompson) and improves it with a descent in the N5 neighborhood (see DescentSolver.descend).
+ * The generator, the order, the graph and the neighborhood of a thread are reused by all its iterations,
+ * only the best solution of the thread is copied when it improves. The best solutions of the threads are
+ * compared once the deadline is passed.
+ */
+public class GraspSolver implements Solver {
+
+    /** Number of constructions and descents run concurrently */
+    private final int threads;
+    /** Priority used to build the restricted candidate lists */
+    private final PriorityRule rule;
+    /** Size of the restricted candidate lists, between 0 (greedy) and 1 (whole conflict sets) */
+    private final double alpha;
+
+    public GraspSolver(int threads, PriorityRule rule, double alpha){
+        this.threads = threads;
+        this.rule = rule;
+        this.alpha = alpha;
+    }
+
+    public GraspSolver(int threads){
+        this(threads, PriorityRule.MWKR, 0.3);
+    }
+
+    /** Best solution found by a thread and the statistics of its search. */
+    private static class Walk {
+        final ResourceOrder best;
+        final int makespan;
+        final SearchStatistics statistics;
+
+        Walk(ResourceOrder best, int makespan, SearchStatistics statistics) {
+            this.best = best;
+            this.makespan = makespan;
+            this.statistics = statistics;
+        }
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        SearchStatistics statistics = new SearchStatistics();
+        long deadlineNanos = statistics.deadlineNanos(deadline);
+
+        Walk best = null;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Walk>> walks = new ArrayList<>();
+            for (int w=0 ; w<threads ; w++){
+                final Random generator = new Random(w);
+                walks.add(pool.submit(() -> {
+                    GifflerThompson constructor = new GifflerThompson(instance);
+                    ResourceOrder current = new ResourceOrder(instance);
+                    ResourceOrder walkBest = new ResourceOrder(instance);
+                    int walkMakespan = Integer.MAX_VALUE;
+                    DisjunctiveGraph graph = new DisjunctiveGraph(instance);
+                    Nowicki neighborhood = new Nowicki(instance);
+                    SwapEvaluator evaluator = new SwapEvaluator(graph, 1);
+                    SearchStatistics walkStatistics = new SearchStatistics();
+                    try {
+                        //The first construction is always done, so that there is a solution even with no time left
+                        do {
+                            long constructionStart = System.nanoTime();
+                            constructor.build(current, rule, generator, alpha);
+                            walkStatistics.constructionNanos += System.nanoTime() - constructionStart;
+                            walkStatistics.constructions++;
+                            walkStatistics.restarts++;
+
+                            //The descent moves the current order in place
+                            graph.evaluate(current);
+                            walkStatistics.evaluations++;
+                            if (DescentSolver.descend(graph, neighborhood, evaluator, deadlineNanos, walkStatistics)){
+                                walkStatistics.localOptima++;
+                            }
+                            if (graph.makespan() < walkMakespan){
+                                walkMakespan = graph.makespan();
+                                walkBest.copyFrom(current);
+                            }
+                        } while (!SearchStatistics.isPassed(deadlineNanos));
+                    } finally {
+                        evaluator.shutdown();
+                    }
+                    return new Walk(walkBest, walkMakespan, walkStatistics);
+                }));
+            }
+            for (Future<Walk> future : walks){
+                Walk walk = future.get();
+                statistics.add(walk.statistics);
+                if (best == null || walk.makespan < best.makespan){
+                    best = walk;
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            pool.shutdown();
+        }
+
+        statistics.stop();
+        return new Result(instance, best.best.toSchedule(), Result.ExitCause.Timeout, statistics);
+    }
+}
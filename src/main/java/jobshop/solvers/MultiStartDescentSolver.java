@@ -0,0 +1,187 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.SearchStatistics;
+import jobshop.Solver;
+import jobshop.encodings.DisjunctiveGraph;
+import jobshop.encodings.JobNumbers;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** Portfolio of descents run concurrently until the deadline.
+ *
+ * Each thread repeatedly builds a solution and improves it with a descent (see DescentSolver.descend).
+ * The first solutions are the ones of the four greedy solvers, the next ones alternate between a randomized
+ * EST rule and random job orders. The best solution found by all threads is shared in an atomic reference.
+ */
+public class MultiStartDescentSolver implements Solver {
+
+    /** Construction rules used for the first restarts */
+    private static final Solver[] GREEDY_SOLVERS = {
+            new GreedySolverEST_SPT(), new GreedySolverEST_LRPT(), new GreedySolverSPT(), new GreedySolverLRPT()
+    };
+
+    /** Number of descents run concurrently */
+    private final int threads;
+
+    public MultiStartDescentSolver(int threads){
+        this.threads = threads;
+    }
+
+    /** A solution and its makespan. */
+    private static class Solution {
+        final ResourceOrder order;
+        final int makespan;
+
+        Solution(ResourceOrder order, int makespan) {
+            this.order = order;
+            this.makespan = makespan;
+        }
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        SearchStatistics statistics = new SearchStatistics();
+        long deadlineNanos = statistics.deadlineNanos(deadline);
+
+        AtomicReference<Solution> best = new AtomicReference<>();
+        AtomicInteger nextRestart = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SearchStatistics>> walks = new ArrayList<>();
+            for (int w=0 ; w<threads ; w++){
+                final Random generator = new Random(w);
+                walks.add(pool.submit(() -> {
+                    DisjunctiveGraph graph = new DisjunctiveGraph(instance);
+                    Nowicki neighborhood = new Nowicki(instance);
+                    SearchStatistics walkStatistics = new SearchStatistics();
+                    //The first restart is always done, so that there is a solution even with no time left
+                    do {
+                        int restart = nextRestart.getAndIncrement();
+                        long constructionStart = System.nanoTime();
+                        graph.evaluate(construct(instance, restart, generator, deadline));
+                        walkStatistics.constructionNanos += System.nanoTime() - constructionStart;
+                        walkStatistics.constructions++;
+                        walkStatistics.restarts++;
+                        walkStatistics.evaluations++;
+
+                        SwapEvaluator evaluator = new SwapEvaluator(graph, 1);
+                        if (DescentSolver.descend(graph, neighborhood, evaluator, deadlineNanos, walkStatistics)){
+                            walkStatistics.localOptima++;
+                        }
+                        publish(best, graph);
+                    } while (!SearchStatistics.isPassed(deadlineNanos));
+                    return walkStatistics;
+                }));
+            }
+            for (Future<SearchStatistics> walk : walks){
+                statistics.add(walk.get());
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            pool.shutdown();
+        }
+
+        statistics.stop();
+        return new Result(instance, best.get().order.toSchedule(), Result.ExitCause.Timeout, statistics);
+    }
+
+    /** Replaces the shared best solution by the order of the graph if it is better, without locking. */
+    private static void publish(AtomicReference<Solution> best, DisjunctiveGraph graph) {
+        Solution current = best.get();
+        if (current != null && current.makespan <= graph.makespan()){
+            return;
+        }
+        Solution candidate = new Solution(graph.order().copy(), graph.makespan());
+        while (!best.compareAndSet(current, candidate)){
+            current = best.get();
+            if (current != null && current.makespan <= candidate.makespan){
+                return;
+            }
+        }
+    }
+
+    /** Builds the initial solution of the given restart, also used to seed other multi-start solvers. */
+    static ResourceOrder construct(Instance instance, int restart, Random generator, long deadline) {
+        if (restart < GREEDY_SOLVERS.length){
+            return new ResourceOrder(GREEDY_SOLVERS[restart].solve(instance, deadline).schedule);
+        }
+        if (restart % 2 == 0){
+            return randomizedEST(instance, generator);
+        }
+        //Random order of the jobs, as in RandomSolver
+        JobNumbers sol = new JobNumbers(instance);
+        for (int j = 0 ; j<instance.numJobs ; j++){
+            for (int t = 0 ; t<instance.numTasks ; t++){
+                sol.jobs[sol.nextToSet++] = j;
+            }
+        }
+        for (int i = sol.jobs.length - 1 ; i > 0 ; i--){
+            int index = generator.nextInt(i + 1);
+            int tmp = sol.jobs[index];
+            sol.jobs[index] = sol.jobs[i];
+            sol.jobs[i] = tmp;
+        }
+        return new ResourceOrder(sol.toSchedule());
+    }
+
+    /** EST rule choosing randomly between the tasks that can start early enough.
+     *
+     * At each step, a task is drawn among the ready ones whose start time is at most
+     * earliest + alpha * (latest - earliest), alpha being drawn once per solution.
+     */
+    private static ResourceOrder randomizedEST(Instance instance, Random generator) {
+        double alpha = 0.5 * generator.nextDouble();
+        int[] jobsTime = new int[instance.numJobs];
+        int[] machinesTime = new int[instance.numMachines];
+        int[] nextTask = new int[instance.numJobs];
+        int[] candidates = new int[instance.numJobs];
+
+        ResourceOrder sol = new ResourceOrder(instance);
+        for (int step = 0 ; step < instance.numOperations() ; step++){
+            //Range of the start times of the ready tasks
+            int earliest = Integer.MAX_VALUE;
+            int latest = Integer.MIN_VALUE;
+            for (int j = 0 ; j < instance.numJobs ; j++){
+                if (nextTask[j] < instance.numTasks){
+                    int start = Integer.max(jobsTime[j], machinesTime[instance.machine(j, nextTask[j])]);
+                    earliest = Integer.min(earliest, start);
+                    latest = Integer.max(latest, start);
+                }
+            }
+
+            //Draw a task among the ones starting early enough
+            int threshold = earliest + (int) (alpha * (latest - earliest));
+            int numCandidates = 0;
+            for (int j = 0 ; j < instance.numJobs ; j++){
+                if (nextTask[j] < instance.numTasks
+                        && Integer.max(jobsTime[j], machinesTime[instance.machine(j, nextTask[j])]) <= threshold){
+                    candidates[numCandidates++] = j;
+                }
+            }
+            int job = candidates[generator.nextInt(numCandidates)];
+
+            //Put the task on the machine
+            Task taskChosen = instance.task(job, nextTask[job]);
+            int machine = instance.machine(taskChosen);
+            int end = Integer.max(jobsTime[job], machinesTime[machine]) + instance.duration(taskChosen);
+            sol.addTaskToMachine(machine, taskChosen);
+            jobsTime[job] = end;
+            machinesTime[machine] = end;
+            nextTask[job]++;
+        }
+        return sol;
+    }
+}
@@ -0,0 +1,143 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.DisjunctiveGraph;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Neighborhood of Nowicki and Smutnicki (N5): swaps of the first two and last two tasks of each block
+ * of the critical path. Shared by the local search solvers.
+ *
+ * An instance of this class holds a buffer for the critical path and must not be shared between threads.
+ */
+public class Nowicki {
+
+    /** A block represents a subsequence of the critical path such that all tasks in it execute on the same machine.
+     * This class identifies a block in a ResourceOrder representation.
+     *
+     * Consider the solution in ResourceOrder representation
+     * machine 0 : (0,1) (1,2) (2,2)
+     * machine 1 : (0,2) (2,1) (1,1)
+     * machine 2 : ...
+     *
+     * The block with : machine = 1, firstTask= 0 and lastTask = 1
+     * Represent the task sequence : [(0,2) (2,1)]
+     *
+     * */
+    public static class Block {
+        /** machine on which the block is identified */
+        public final int machine;
+        /** index of the first task of the block */
+        public final int firstTask;
+        /** index of the last task of the block */
+        public final int lastTask;
+
+        Block(int machine, int firstTask, int lastTask) {
+            this.machine = machine;
+            this.firstTask = firstTask;
+            this.lastTask = lastTask;
+        }
+    }
+
+    /**
+     * Represents a swap of two tasks on the same machine in a ResourceOrder encoding.
+     *
+     * Consider the solution in ResourceOrder representation
+     * machine 0 : (0,1) (1,2) (2,2)
+     * machine 1 : (0,2) (2,1) (1,1)
+     * machine 2 : ...
+     *
+     * The swam with : machine = 1, t1= 0 and t2 = 1
+     * Represent inversion of the two tasks : (0,2) and (2,1)
+     * Applying this swap on the above resource order should result in the following one :
+     * machine 0 : (0,1) (1,2) (2,2)
+     * machine 1 : (2,1) (0,2) (1,1)
+     * machine 2 : ...
+     */
+    public static class Swap {
+        // machine on which to perform the swap
+        public final int machine;
+        // index of one task to be swapped
+        public final int t1;
+        // index of the other task to be swapped
+        public final int t2;
+
+        Swap(int machine, int t1, int t2) {
+            this.machine = machine;
+            this.t1 = t1;
+            this.t2 = t2;
+        }
+
+        /** Apply this swap on the given resource order, transforming it into a new solution. */
+        public void applyOn(ResourceOrder order) {
+            order.swapTasks(machine, t1, t2);
+        }
+    }
+
+    private final Instance instance;
+
+    // operations of the current critical path
+    private final int[] path;
+
+    public Nowicki(Instance instance) {
+        this.instance = instance;
+        this.path = new int[instance.numOperations()];
+    }
+
+    /** Returns a list of all blocks of the critical path of the order last evaluated by the graph.
+     *
+     * The path is read from the graph and cut each time the machine changes, the index of the tasks
+     * on their machine being given by the resource order.
+     */
+    public List<Block> blocksOfCriticalPath(DisjunctiveGraph graph) {
+        ResourceOrder order = graph.order();
+        int length = graph.criticalPath(path);
+        List<Block> result = new ArrayList<>();
+
+        int start = 0;
+        while (start < length){
+            //Extend the block as long as the tasks are on the same machine
+            int machine = instance.machine(instance.task(path[start]));
+            int end = start;
+            while (end+1 < length && instance.machine(instance.task(path[end+1])) == machine){
+                end++;
+            }
+            //If the block is composed of 2+ tasks, add it to the result
+            if (end > start){
+                result.add(new Block(machine,
+                        order.positionOnMachine(instance.task(path[start])),
+                        order.positionOnMachine(instance.task(path[end]))));
+            }
+            start = end + 1;
+        }
+        return result;
+    }
+
+    /** Returns a list of all blocks of the critical path of the given order. */
+    public List<Block> blocksOfCriticalPath(ResourceOrder order) {
+        DisjunctiveGraph graph = new DisjunctiveGraph(order.instance);
+        graph.evaluate(order);
+        return blocksOfCriticalPath(graph);
+    }
+
+    /** For a given block, return the possible swaps for the Nowicki and Smutnicki neighborhood */
+    public List<Swap> neighbors(Block block) {
+        List<Swap> result = new ArrayList<>();
+        result.add(new Swap(block.machine,block.firstTask,block.firstTask+1));
+        if ((block.lastTask - block.firstTask)>1){
+            result.add(new Swap(block.machine,block.lastTask - 1,block.lastTask));
+        }
+        return result;
+    }
+
+    /** Returns the swaps of all blocks of the critical path of the order last evaluated by the graph. */
+    public List<Swap> allNeighbors(DisjunctiveGraph graph) {
+        List<Swap> result = new ArrayList<>();
+        for (Block block : blocksOfCriticalPath(graph)){
+            result.addAll(neighbors(block));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+
+/** Priority of a ready operation in a greedy construction (see Dispatcher), the operation with the smallest
+ * priority being dispatched first.
+ *
+ * Rules are evaluated once for each operation, when it becomes ready, and should only read the primitive
+ * tables of the instance so that they cost O(1). Rules are composed with then(): the second rule breaks the
+ * ties of the first one.
+ */
+@FunctionalInterface
+public interface PriorityRule {
+
+    /** Priority of the operation op (see Instance.operation) of the instance.
+     * @param readyTime time at which the previous task of the job ends, 0 for the first task of a job.
+     */
+    int priority(Instance instance, int op, int readyTime);
+
+    /** Rule ordering the operations with this rule, the ties being broken by the given rule. */
+    default PriorityRule then(PriorityRule next) {
+        PriorityRule[] first = levels();
+        PriorityRule[] second = next.levels();
+        PriorityRule[] all = new PriorityRule[first.length + second.length];
+        System.arraycopy(first, 0, all, 0, first.length);
+        System.arraycopy(second, 0, all, first.length, second.length);
+        return new Chain(all);
+    }
+
+    /** Simple rules composing this rule, from the most to the least significant. */
+    default PriorityRule[] levels() {
+        return new PriorityRule[] { this };
+    }
+
+    /** Shortest Processing Time: the operation with the smallest duration first. */
+    PriorityRule SPT = (instance, op, readyTime) -> instance.durationOf(op);
+
+    /** Longest Processing Time: the operation with the largest duration first. */
+    PriorityRule LPT = (instance, op, readyTime) -> -instance.durationOf(op);
+
+    /** Longest Remaining Processing Time: the operation whose job has the most work left first,
+     * the work left including the operation itself. */
+    PriorityRule LRPT = (instance, op, readyTime) -> -instance.remainingWork(op);
+
+    /** Most WorK Remaining: the operation whose job has the most work left after it first. */
+    PriorityRule MWKR = (instance, op, readyTime) -> instance.durationOf(op) - instance.remainingWork(op);
+
+    /** Most Operations Remaining: the operation whose job has the most tasks left first. */
+    PriorityRule MOR = (instance, op, readyTime) -> instance.taskOf(op) - instance.numTasks;
+
+    /** First In First Out: the operation that has been ready for the longest time first. */
+    PriorityRule FIFO = (instance, op, readyTime) -> readyTime;
+
+    /** Arbitrary order of the operations drawn from the given seed, typically used to break ties randomly.
+     * The priority is a hash of the seed and of the operation, so that the rule has no state and can be shared. */
+    static PriorityRule random(long seed) {
+        return (instance, op, readyTime) -> {
+            //SplitMix64 finalizer
+            long z = seed + (op + 1) * 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return (int) (z ^ (z >>> 31));
+        };
+    }
+
+    /** Rules applied one after the other, each one breaking the ties of the previous ones. */
+    final class Chain implements PriorityRule {
+        private final PriorityRule[] levels;
+
+        private Chain(PriorityRule[] levels) {
+            this.levels = levels;
+        }
+
+        /** Priority given by the first rule, the other ones are used by the dispatcher to break its ties. */
+        @Override
+        public int priority(Instance instance, int op, int readyTime) {
+            return levels[0].priority(instance, op, readyTime);
+        }
+
+        @Override
+        public PriorityRule[] levels() {
+            return levels.clone();
+        }
+    }
+}
@@ -10,6 +10,7 @@ public class RandomSolver implements Solver {
 
     @Override
     public Result solve(Instance instance, long deadline) {
+        SearchStatistics statistics = new SearchStatistics();
         Random generator = new Random(0);
 
         JobNumbers sol = new JobNumbers(instance);
@@ -20,16 +21,21 @@ public class RandomSolver implements Solver {
             }
         }
         Schedule best = sol.toSchedule();
+        statistics.evaluations++;
+        statistics.improved(best.makespan());
         while(deadline - System.currentTimeMillis() > 1) {
+            statistics.iterations++;
             shuffleArray(sol.jobs, generator);
             Schedule s = sol.toSchedule();
+            statistics.evaluations++;
             if(s.makespan() < best.makespan()) {
                 best = s;
+                statistics.improved(best.makespan());
             }
         }
+        statistics.stop();
 
-
-        return new Result(instance, best, Result.ExitCause.Timeout);
+        return new Result(instance, best, Result.ExitCause.Timeout, statistics);
     }
 
     /** Simple Fisher–Yates array shuffling */
@@ -0,0 +1,227 @@
+package jobshop.solvers;
+
+import jobshop.encodings.DisjunctiveGraph;
+import jobshop.solvers.Nowicki.Swap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/** Finds the best swap among the neighbors of the order evaluated by a graph. Shared by the local search solvers.
+ *
+ * The neighbors are ranked by their estimate (see DisjunctiveGraph.estimateSwap) and evaluated exactly in this
+ * order, the ones whose estimate cannot beat the best swap found so far being skipped.
+ * With a parallelism greater than 1, the ranked neighbors are dealt between as many workers run on a
+ * ForkJoinPool, each of them evaluating its share on its own copy of the graph. The best swap is the one with
+ * the smallest makespan and then the smallest index in the list of neighbors, so the result does not depend
+ * on the number of workers nor on the scheduling of the threads.
+ *
+ * An instance of this class is bound to a graph and must not be shared between threads,
+ * shutdown() must be called once it is not used anymore.
+ */
+public class SwapEvaluator {
+
+    // graph of the current order, on which the estimates are computed and the swaps are committed
+    private final DisjunctiveGraph graph;
+
+    // the calling thread, evaluating the swaps on the graph when there are no workers
+    private final Worker self;
+
+    // copies of the graph of each worker, null if the swaps are evaluated on the calling thread
+    private final Worker[] workers;
+    private final ForkJoinPool pool;
+
+    // swaps committed since the last call to best(), the workers have not applied them yet
+    private final List<Swap> pending = new ArrayList<>();
+
+    // number of candidates given to best()
+    private long neighbors = 0;
+
+    // scratch buffers of best(), grown to the largest neighborhood seen: the estimate of each candidate, the
+    // candidates ranked by estimate, the keys used to sort them and the limits handed out by limits()
+    private int[] estimates = new int[0];
+    private int[] ranking = new int[0];
+    private long[] keys = new long[0];
+    private int[] limits = new int[0];
+
+    /** Creates an evaluator for the order evaluated by the given graph, using the given number of threads. */
+    public SwapEvaluator(DisjunctiveGraph graph, int parallelism) {
+        if(parallelism < 1)
+            throw new RuntimeException("The parallelism should be at least 1");
+        this.graph = graph;
+        this.self = new Worker(graph);
+        if(parallelism == 1) {
+            workers = null;
+            pool = null;
+        } else {
+            workers = new Worker[parallelism];
+            for(int w = 0 ; w < parallelism ; w++) {
+                DisjunctiveGraph copy = new DisjunctiveGraph(graph.instance);
+                copy.evaluate(graph.order().copy());
+                workers[w] = new Worker(copy);
+            }
+            pool = new ForkJoinPool(parallelism);
+        }
+    }
+
+    /** Returns the index of the best swap among the candidates, -1 if there is none.
+     *
+     * A candidate may only be chosen if its makespan is strictly lower than its limit,
+     * limits[i] being the limit of candidates.get(i), the array may be longer than the list (see limits()).
+     */
+    public int best(List<Swap> candidates, int[] limits) {
+        int count = candidates.size();
+        if(estimates.length < count) {
+            int capacity = Math.max(count, 2 * estimates.length);
+            estimates = new int[capacity];
+            ranking = new int[capacity];
+            keys = new long[capacity];
+        }
+
+        //Rank the candidates by a lower bound of their makespan, the index breaking ties
+        for (int i=0 ; i<count ; i++){
+            Swap swap = candidates.get(i);
+            estimates[i] = graph.estimateSwap(swap.machine, swap.t1, swap.t2);
+            keys[i] = ((long) estimates[i] << 32) | i;
+        }
+        Arrays.sort(keys, 0, count);
+        for (int r=0 ; r<count ; r++){
+            ranking[r] = (int) keys[r];
+        }
+
+        neighbors += count;
+        long best;
+        if(workers == null) {
+            best = bestOfShare(self, candidates, estimates, limits, ranking, count, 0, 1);
+        } else {
+            best = pool.invoke(new Evaluation(candidates, limits, count));
+            pending.clear();
+        }
+        return best == NONE ? -1 : (int) best;
+    }
+
+    /** Returns a buffer of at least the given size to hold the limits given to best(), reused by the next
+     * calls so that a search does not allocate one per iteration. */
+    public int[] limits(int size) {
+        if(limits.length < size)
+            limits = new int[Math.max(size, 2 * limits.length)];
+        return limits;
+    }
+
+    /** Applies the given swap to the graph and its order. */
+    public void commit(Swap swap) {
+        graph.trySwap(swap.machine, swap.t1, swap.t2);
+        graph.commit();
+        if(workers != null)
+            pending.add(swap);
+    }
+
+    /** Number of candidates given to best() since the creation of the evaluator. */
+    public long neighbors() {
+        return neighbors;
+    }
+
+    /** Number of candidates whose makespan has been computed since the creation of the evaluator,
+     * the other ones being discarded thanks to their estimate. */
+    public long evaluations() {
+        long total = self.evaluations;
+        if(workers != null) {
+            for(Worker worker : workers)
+                total += worker.evaluations;
+        }
+        return total;
+    }
+
+    /** Releases the threads of the workers. */
+    public void shutdown() {
+        if(pool != null)
+            pool.shutdown();
+    }
+
+    // best swap of a share, the makespan in the high bits and the index in the low bits so that
+    // the smallest value is the best swap
+    private static final long NONE = Long.MAX_VALUE;
+
+    /** Evaluates on the graph of the worker the candidates at rank share, share + numShares, share + 2*numShares...
+     * among the count first ones and returns the best of them. */
+    private static long bestOfShare(Worker worker, List<Swap> candidates, int[] estimates, int[] limits,
+                                    int[] ranking, int count, int share, int numShares) {
+        DisjunctiveGraph graph = worker.graph;
+        int bestScore = Integer.MAX_VALUE;
+        int bestIndex = -1;
+        for (int r = share ; r < count ; r += numShares){
+            int i = ranking[r];
+            if (estimates[i] > bestScore){
+                break;
+            }
+            if ((estimates[i] == bestScore && i > bestIndex) || estimates[i] >= limits[i]){
+                //Cannot be better than the best one, which comes first in the neighbors list, or than its limit
+                continue;
+            }
+            Swap swap = candidates.get(i);
+            int score = graph.trySwap(swap.machine, swap.t1, swap.t2);
+            graph.undo();
+            worker.evaluations++;
+            if (score >= 0 && score < limits[i] && (score < bestScore || (score == bestScore && i < bestIndex))){
+                bestIndex = i;
+                bestScore = score;
+            }
+        }
+        return bestIndex == -1 ? NONE : ((long) bestScore << 32) | bestIndex;
+    }
+
+    /** Graph on which a worker evaluates its share of the candidates, a copy of the main one for the workers
+     * of the pool. */
+    private static class Worker {
+        final DisjunctiveGraph graph;
+
+        // number of candidates evaluated by this worker, only updated by the thread running it
+        long evaluations = 0;
+
+        Worker(DisjunctiveGraph graph) {
+            this.graph = graph;
+        }
+    }
+
+    /** Evaluation of all candidates, forking one task per worker. */
+    @SuppressWarnings("serial")
+    private class Evaluation extends RecursiveTask<Long> {
+        final List<Swap> candidates;
+        final int[] limits;
+        final int count;
+
+        Evaluation(List<Swap> candidates, int[] limits, int count) {
+            this.candidates = candidates;
+            this.limits = limits;
+            this.count = count;
+        }
+
+        @Override
+        protected Long compute() {
+            List<RecursiveTask<Long>> shares = new ArrayList<>();
+            for(int w = 0 ; w < workers.length ; w++) {
+                final int share = w;
+                shares.add(new RecursiveTask<Long>() {
+                    @Override
+                    protected Long compute() {
+                        Worker worker = workers[share];
+                        //Catch up with the swaps committed on the main graph
+                        for(Swap swap : pending) {
+                            worker.graph.trySwap(swap.machine, swap.t1, swap.t2);
+                            worker.graph.commit();
+                        }
+                        return bestOfShare(worker, candidates, estimates, limits, ranking, count, share, workers.length);
+                    }
+                });
+            }
+            long best = NONE;
+            for(RecursiveTask<Long> share : ForkJoinTask.invokeAll(shares)) {
+                best = Math.min(best, share.join());
+            }
+            return best;
+        }
+    }
+}
@@ -1,15 +1,25 @@
 package jobshop.encodings;
 
+import jobshop.BestKnownResult;
 import jobshop.Instance;
+import jobshop.InstanceCache;
 import jobshop.Result;
+import jobshop.SearchStatistics;
 import jobshop.Schedule;
 import jobshop.Solver;
 import jobshop.solvers.*;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
 
 public class EncodingTests {
 
@@ -54,21 +64,161 @@ public class EncodingTests {
         Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
 
         ResourceOrder enc = new ResourceOrder(instance);
-        enc.tasksByMachine[0][0] = new Task(0,0);
-        enc.tasksByMachine[1][0] = new Task(1,0);
-        enc.tasksByMachine[2][0] = new Task(0,2);
-        enc.tasksByMachine[0][1] = new Task(1,1);
-        enc.tasksByMachine[1][1] = new Task(0,1);
-        enc.tasksByMachine[2][1] = new Task(1,2);
+        enc.setTaskOfMachine(0, 0, new Task(0,0));
+        enc.setTaskOfMachine(1, 0, new Task(1,0));
+        enc.setTaskOfMachine(2, 0, new Task(0,2));
+        enc.setTaskOfMachine(0, 1, new Task(1,1));
+        enc.setTaskOfMachine(1, 1, new Task(0,1));
+        enc.setTaskOfMachine(2, 1, new Task(1,2));
 
         Schedule sched = enc.toSchedule();
         System.out.println(sched);
         assert sched.isValid();
         assert  sched.makespan()==12;
 
+        // the position of each task on its machine follows the swaps
+        assert enc.positionOnMachine(instance.task(1,1)) == 1;
+        enc.swapTasks(0, 0, 1);
+        assert enc.positionOnMachine(instance.task(1,1)) == 0;
+        assert enc.positionOnMachine(instance.task(0,0)) == 1;
+        assert enc.getTaskOfMachine(0, 0).equals(new Task(1,1));
+
+    }
+
+    @Test
+    public void testCyclicResourceOrder() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+
+        // (0,0) -> (0,1) -> (1,0) -> (1,1) -> (0,0)
+        ResourceOrder enc = new ResourceOrder(instance);
+        enc.setTaskOfMachine(0, 0, new Task(1,1));
+        enc.setTaskOfMachine(0, 1, new Task(0,0));
+        enc.setTaskOfMachine(1, 0, new Task(0,1));
+        enc.setTaskOfMachine(1, 1, new Task(1,0));
+        enc.setTaskOfMachine(2, 0, new Task(0,2));
+        enc.setTaskOfMachine(2, 1, new Task(1,2));
+
+        DisjunctiveGraph graph = new DisjunctiveGraph(instance);
+        assert graph.evaluate(enc) == -1;
+
+        try {
+            enc.toSchedule();
+            assert false : "a cyclic order should not be converted to a schedule";
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
+
+
+
+    @Test
+    public void testIncrementalSwap() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        ResourceOrder enc = new ResourceOrder(new GreedySolverEST_SPT().solve(instance, System.currentTimeMillis() + 10).schedule);
+
+        DisjunctiveGraph graph = new DisjunctiveGraph(instance);
+        int initial = graph.evaluate(enc);
+
+        for(int m = 0 ; m < instance.numMachines ; m++) {
+            for(int t = 0 ; t < instance.numJobs - 1 ; t++) {
+                // incremental evaluation should give the same result as a full one
+                int estimate = graph.estimateSwap(m, t, t+1);
+                int makespan = graph.trySwap(m, t, t+1);
+                int expected = new DisjunctiveGraph(instance).evaluate(enc);
+                assert makespan == expected;
+                // the estimate is a lower bound of the makespan of feasible neighbors
+                assert makespan < 0 || estimate <= makespan;
+
+                // and undoing the swap should restore the initial order
+                graph.undo();
+                assert graph.makespan() == initial;
+                assert new DisjunctiveGraph(instance).evaluate(enc) == initial;
+            }
+        }
     }
 
+    @Test
+    public void testBinaryInstance() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        Path binary = Files.createTempFile("ft06", ".bin");
+        try {
+            instance.writeBinary(binary);
+            // the format is detected from the content of the file
+            Instance read = Instance.fromFile(binary);
+            assert read.numJobs == instance.numJobs && read.numTasks == instance.numTasks;
+            for(int j = 0 ; j < instance.numJobs ; j++) {
+                for(int t = 0 ; t < instance.numTasks ; t++) {
+                    assert read.machine(j, t) == instance.machine(j, t);
+                    assert read.duration(j, t) == instance.duration(j, t);
+                }
+            }
+            assert read.task_with_machine(2, 5) == instance.task_with_machine(2, 5);
+        } finally {
+            Files.delete(binary);
+        }
+    }
 
+    @Test
+    public void testTextInstance() throws IOException {
+        // comments may start anywhere on a line and the stream may be compressed
+        String text = "# instance\n2 2 # jobs tasks\n0 3 1 2\n1 4 0 1# last job\n";
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try(GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(text.getBytes(StandardCharsets.US_ASCII));
+        }
+        for(byte[] content : new byte[][] { text.getBytes(StandardCharsets.US_ASCII), compressed.toByteArray() }) {
+            Instance instance = Instance.fromStream(new ByteArrayInputStream(content));
+            assert instance.numJobs == 2 && instance.numTasks == 2;
+            assert instance.machine(1, 0) == 1 && instance.duration(1, 0) == 4;
+            assert instance.machine(1, 1) == 0 && instance.duration(1, 1) == 1;
+        }
+
+        // comments may contain any byte, 0xFF must not be mistaken for the end of the stream
+        byte[] latin1 = "2 1 # \u00ff comment\n0 5\n0 0\n".getBytes(StandardCharsets.ISO_8859_1);
+        Instance instance = Instance.fromStream(new ByteArrayInputStream(latin1));
+        assert instance.numJobs == 2 && instance.duration(0, 0) == 5;
+    }
+
+    @Test
+    public void testLowerBound() throws IOException {
+        // the lower bound cannot exceed the best known makespan
+        for(String name : BestKnownResult.instancesMatching("la")) {
+            Instance instance = InstanceCache.shared().get(name);
+            assert instance.lowerBound() <= BestKnownResult.of(name);
+            // remaining work is the suffix sum of the durations of each job
+            for(int j = 0 ; j < instance.numJobs ; j++) {
+                assert instance.remainingWork(j, 0) == instance.jobDuration(j);
+                assert instance.remainingWork(j, instance.numTasks - 1) == instance.duration(j, instance.numTasks - 1);
+                for(int t = 0 ; t < instance.numTasks - 1 ; t++)
+                    assert instance.remainingWork(j, t) == instance.duration(j, t) + instance.remainingWork(j, t + 1);
+            }
+            assert InstanceCache.shared().get(name) == instance;
+        }
+    }
+
+    @Test
+    public void testScheduleViolations() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+
+        // all tasks start at time 0
+        Schedule sched = new Schedule(instance, new int[instance.numJobs][instance.numTasks]);
+        assert !sched.isValid();
+
+        List<Schedule.Violation> violations = sched.violations(true);
+        // each job has two precedence violations and each machine has its two tasks overlapping
+        assert violations.stream().filter(v -> v.kind == Schedule.Violation.Kind.JobPrecedence).count() == 4;
+        assert violations.stream().filter(v -> v.kind == Schedule.Violation.Kind.MachineOverlap).count() == 3;
+        assert violations.stream().noneMatch(v -> v.kind == Schedule.Violation.Kind.NegativeStartTime);
+        // checking the machines in parallel reports the same violations in the same order
+        assert violations.toString().equals(sched.violations(false).toString());
+
+        // a task of duration 0 may start with a longer task of the same machine, whatever their job numbers
+        Instance zero = Instance.fromStream(new ByteArrayInputStream(
+                "2 1\n0 5\n0 0\n".getBytes(StandardCharsets.US_ASCII)));
+        assert new Schedule(zero, new int[][] { {0}, {0} }).isValid();
+        assert new Schedule(zero, new int[][] { {0}, {5} }).isValid();
+        assert !new Schedule(zero, new int[][] { {0}, {3} }).isValid();
+    }
 
     @Test
     public void testBasicSolver() throws IOException {
@@ -82,6 +232,111 @@ public class EncodingTests {
         assert result.schedule.isValid();
     }
 
+    @Test
+    public void testDispatchSolver() throws IOException {
+        Instance instance = InstanceCache.shared().get("ft10");
+        PriorityRule[] rules = { PriorityRule.SPT, PriorityRule.LPT, PriorityRule.LRPT, PriorityRule.MWKR,
+                PriorityRule.MOR, PriorityRule.FIFO, PriorityRule.random(42) };
+        for(Dispatcher.Filter filter : Dispatcher.Filter.values()) {
+            for(PriorityRule rule : rules) {
+                Schedule sched = new DispatchSolver(filter, rule.then(PriorityRule.random(7)))
+                        .solve(instance, System.currentTimeMillis() + 10).schedule;
+                assert sched.isValid();
+                // a rule breaking its own ties does not change the order
+                assert new DispatchSolver(filter, rule).solve(instance, System.currentTimeMillis() + 10).schedule
+                        .makespan() == new DispatchSolver(filter, rule.then(rule))
+                        .solve(instance, System.currentTimeMillis() + 10).schedule.makespan();
+            }
+        }
+        // the greedy solvers are dispatch solvers
+        assert new GreedySolverEST_SPT().solve(instance, System.currentTimeMillis() + 10).schedule.makespan()
+                == new DispatchSolver(Dispatcher.Filter.EST, PriorityRule.SPT)
+                        .solve(instance, System.currentTimeMillis() + 10).schedule.makespan();
+    }
+
+    @Test
+    public void testGifflerThompson() throws IOException {
+        Instance instance = InstanceCache.shared().get("ft10");
+        GifflerThompson generator = new GifflerThompson(instance);
+        ResourceOrder order = new ResourceOrder(instance);
+        int makespan = generator.build(order, PriorityRule.SPT);
+        assert order.toSchedule().isValid();
+        assert order.toSchedule().makespan() == makespan;
+
+        // the same seed gives the same schedule, the order is overwritten by each construction
+        Random random = new Random(3);
+        for(double alpha : new double[] { 0.2, 1 }) {
+            makespan = generator.build(order, PriorityRule.MWKR, new Random(5), alpha);
+            ResourceOrder first = order.copy();
+            generator.build(order, PriorityRule.MWKR, random, alpha);
+            generator.build(order, PriorityRule.MWKR, new Random(5), alpha);
+            assert order.equals(first);
+            assert order.toSchedule().isValid();
+            assert order.toSchedule().makespan() == makespan;
+        }
+
+        // orb07 has tasks of duration 0, the operation completing first may then be alone in its conflict set
+        Instance zeros = InstanceCache.shared().get("orb07");
+        generator = new GifflerThompson(zeros);
+        order = new ResourceOrder(zeros);
+        for(PriorityRule rule : new PriorityRule[] { PriorityRule.SPT, PriorityRule.MWKR }) {
+            makespan = generator.build(order, rule);
+            assert order.toSchedule().isValid();
+            assert order.toSchedule().makespan() == makespan;
+            for(int i = 0 ; i < 20 ; i++) {
+                makespan = generator.build(order, rule, random, 0.3);
+                assert order.toSchedule().makespan() == makespan;
+            }
+        }
+    }
+
+    @Test
+    public void testGraspSolver() throws IOException {
+        // orb07 has tasks of duration 0, which must not empty the conflict sets of the constructions
+        Instance instance = InstanceCache.shared().get("orb07");
+        Result result = new GraspSolver(2).solve(instance, System.currentTimeMillis() + 200);
+        assert result.schedule.isValid();
+        assert result.statistics.constructions > 0;
+    }
+
+    @Test
+    public void testTabooAnytime() throws IOException {
+        // the anytime taboo search runs until its deadline, even when all the moves are taboo
+        for(String name : new String[] { "ft10", "orb07" }) {
+            Instance instance = InstanceCache.shared().get(name);
+            Result result = new TabooSolver(50).solve(instance, System.currentTimeMillis() + 300);
+            assert result.cause == Result.ExitCause.Timeout;
+            assert result.schedule.isValid();
+        }
+
+        // without deadline, a bounded taboo search runs all its iterations
+        Instance instance = InstanceCache.shared().get("ft10");
+        Result result = new TabooSolver(300, 10).solve(instance, Long.MAX_VALUE);
+        assert result.cause == Result.ExitCause.Blocked;
+        assert result.statistics.iterations == 300;
+    }
+
+    @Test
+    public void testStatisticsMerge() throws InterruptedException {
+        // concurrent searches: only the improvements of the best makespan found by both are kept, in time order
+        SearchStatistics total = new SearchStatistics();
+        SearchStatistics first = new SearchStatistics();
+        SearchStatistics second = new SearchStatistics();
+        first.improved(120);
+        Thread.sleep(2);
+        second.improved(110);
+        Thread.sleep(2);
+        first.improved(115);
+        Thread.sleep(2);
+        second.improved(100);
+        total.add(first);
+        total.add(second);
+        assert total.numImprovements() == 3;
+        assert total.improvementMakespan(0) == 120 && total.improvementMakespan(2) == 100;
+        assert total.improvementNanos(1) <= total.improvementNanos(2);
+        assert total.timeToBestNanos() == total.improvementNanos(2);
+    }
+
     @Test
     public void testGreedySolver() throws IOException {
         Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));